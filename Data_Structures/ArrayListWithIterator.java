@@ -0,0 +1,294 @@
+package Data_Structures;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import Interfaces.ListWithIteratorInterface;
+import Logging.Log;
+
+/**
+ * Class implementing a list in a growable array, with an inner iterator class.
+ * Positions start at 0 as in LinkedListWithIterator, and getEntry, replace and swapRemove take constant time.
+ * @param <T> generic parameter
+ */
+public class ArrayListWithIterator<T> implements ListWithIteratorInterface<T>
+{
+	private static final int DEFAULT_CAPACITY = 4;
+	
+	private T[] entries;
+	private int numOfEntries;
+	private int modifications; //changes of length, checked by iterators
+	
+	/**
+	 * Default constructor
+	 */
+	public ArrayListWithIterator()
+	{
+		this(DEFAULT_CAPACITY);
+	}
+	
+	/**
+	 * Parameterized constructor
+	 * @param capacity number of entries held before growing
+	 */
+	@SuppressWarnings("unchecked")
+	public ArrayListWithIterator(int capacity)
+	{
+		entries = (T[]) new Object[Math.max(1, capacity)];
+		numOfEntries = 0;
+	}
+	
+	/**
+	 * Copy constructor
+	 * @param list list to copy
+	 */
+	public ArrayListWithIterator(ArrayListWithIterator<T> list)
+	{
+		entries = Arrays.copyOf(list.entries, Math.max(1, list.numOfEntries));
+		numOfEntries = list.numOfEntries;
+	}
+	
+	/** Adds a new entry to the end of this list. 
+	 * Entries currently in the list are unaffected.
+	 * The list's size is increased by 1.
+	 * @param newEntry The object to be added as a new entry.
+	 */
+	public void add(T newEntry)
+	{
+		ensureCapacity(numOfEntries + 1);
+		entries[numOfEntries++] = newEntry;
+		modifications++;
+		if (Log.STRUCTURES.isTraceEnabled())
+		{
+			Log.STRUCTURES.trace(() -> "Added in list, total entries: " + numOfEntries);
+		}
+	}
+	
+	/** Adds a new entry at a specified position within this list.
+	 * Entries originally at and above the specified position
+	 * are at the next higher position within the list.
+	 * The list's size is increased by 1.
+	 * @param givenPosition An integer that specifies the desired position of the new entry. 
+	 * @param newEntry The object to be added as a new entry. 
+	 * @throws IndexOutOfBoundsException if either givenPosition < 0 or givenPosition > getLength().
+	 */
+	public void add(int givenPosition, T newEntry)
+	{
+		if (givenPosition >= 0 && givenPosition <= numOfEntries)
+		{
+			ensureCapacity(numOfEntries + 1);
+			System.arraycopy(entries, givenPosition, entries, givenPosition + 1, numOfEntries - givenPosition);
+			entries[givenPosition] = newEntry;
+			numOfEntries++;
+			modifications++;
+		}
+		else
+		{
+			throw new IndexOutOfBoundsException("Given position of add's new entry is out of bounds.");
+		}
+	}
+	
+	/** Removes the entry at a given position from this list.
+	 * Entries originally at positions higher than the 
+	 * given position are at the next lower position within the list,
+	 * and the list's size is decreased by 1.
+	 * @param givenPosition An integer that indicates the position of the entry to be removed.
+	 * @return A reference to the removed entry.
+	 * @throws IndexOutOfBoundsException if either givenPosition < 0 or givenPosition >= getLength().
+	 */
+	public T remove(int givenPosition)
+	{
+		checkPosition(givenPosition, "Illegal position given to remove operation.");
+		
+		T data = entries[givenPosition];
+		System.arraycopy(entries, givenPosition + 1, entries, givenPosition, numOfEntries - givenPosition - 1);
+		entries[--numOfEntries] = null;
+		modifications++;
+		return data;
+	}
+	
+	/** Removes the entry at a given position from this list in constant time,
+	 * moving the last entry into its position instead of shifting the entries after it.
+	 * The list's size is decreased by 1.
+	 * @param givenPosition An integer that indicates the position of the entry to be removed.
+	 * @return A reference to the removed entry.
+	 * @throws IndexOutOfBoundsException if either givenPosition < 0 or givenPosition >= getLength().
+	 */
+	public T swapRemove(int givenPosition)
+	{
+		checkPosition(givenPosition, "Illegal position given to remove operation.");
+		
+		T data = entries[givenPosition];
+		entries[givenPosition] = entries[--numOfEntries];
+		entries[numOfEntries] = null;
+		modifications++;
+		return data;
+	}
+	
+	/** Retrieves the entry at a given position in this list.
+	 * @param givenPosition An integer that indicates the position of the desired entry.
+	 * @return A reference to the indicated entry.
+	 * @throws IndexOutOfBoundsException if either givenPosition < 0 or givenPosition >= getLength().
+	 */
+	public T getEntry(int givenPosition)
+	{
+		checkPosition(givenPosition, "Given position of getEntry is out of bounds.");
+		return entries[givenPosition];
+	}
+	
+	/** Replaces the entry at a given position in this list. 
+	 * @param givenPosition An integer that indicates the position of the entry to be replaced.
+	 * @param newEntry The object that will replace the entry at the position givenPosition.
+	 * @return The original entry that was replaced.
+	 * @throws IndexOutOfBoundsException if either givenPosition < 0 or givenPosition >= getLength().
+	 */
+	public T replace(int givenPosition, T newEntry)
+	{
+		checkPosition(givenPosition, "Given position of replace is out of bounds.");
+		T data = entries[givenPosition];
+		entries[givenPosition] = newEntry;
+		return data;
+	}
+	
+	/** Sees whether this list contains a given entry.
+	 * @param anEntry The object that is the desired entry.
+	 * @return True if the list contains anEntry, or false if not.
+	 */
+	public boolean contains(T anEntry)
+	{
+		return indexOf(anEntry) >= 0;
+	}
+	
+	/** Finds the first position of a given entry.
+	 * @param anEntry The object that is the desired entry.
+	 * @return The position of anEntry, or -1 if the list does not contain it.
+	 */
+	public int indexOf(T anEntry)
+	{
+		for (int i = 0; i < numOfEntries; i++)
+		{
+			if (anEntry.equals(entries[i]))
+			{
+				return i;
+			}
+		}
+		return -1;
+	}
+	
+	/** Retrieves all entries that are in this list in the order in which they occur in the list.
+	 * @return A newly allocated array of all the entries in the list. If the list is empty, the returned array is empty.
+	 */
+	public T[] toArray()
+	{
+		return Arrays.copyOf(entries, numOfEntries);
+	}
+	
+	/** Gets the length of this list.
+	 * @return The integer number of entries currently in the list.
+	 */
+	public int getLength()
+	{
+		return numOfEntries;
+	}
+
+	/** Removes all entries from this list.
+	 */
+	public void clear()
+	{
+		Arrays.fill(entries, 0, numOfEntries, null);
+		numOfEntries = 0;
+		modifications++;
+	}
+
+	/** Sees whether this list is empty.
+	 * @return True if the list is empty, or false if not.
+	 */
+	public boolean isEmpty() 
+	{
+		return numOfEntries == 0;
+	}
+	
+	public Iterator<T> iterator()
+	{
+		return new IteratorForArrayList();
+	}
+	
+	/**
+	 * Method grows the array to hold a number of entries
+	 * @param capacity number of entries
+	 */
+	private void ensureCapacity(int capacity)
+	{
+		if (capacity > entries.length)
+		{
+			entries = Arrays.copyOf(entries, Math.max(capacity, entries.length * 2));
+		}
+	}
+	
+	/**
+	 * Method checks a position of an entry
+	 * @param givenPosition position
+	 * @param message message of the exception
+	 * @throws IndexOutOfBoundsException if either givenPosition < 0 or givenPosition >= getLength().
+	 */
+	private void checkPosition(int givenPosition, String message)
+	{
+		if (givenPosition < 0 || givenPosition >= numOfEntries)
+		{
+			throw new IndexOutOfBoundsException(message);
+		}
+	}
+	
+	//
+	private class IteratorForArrayList implements Iterator<T>
+	{
+		private int nextPosition;
+		private boolean wasNextCalled;
+		private int expectedModifications;
+		
+		private IteratorForArrayList()
+		{
+			nextPosition = 0;
+			wasNextCalled = false;
+			expectedModifications = modifications;
+		}
+		
+		public boolean hasNext()
+		{
+			return nextPosition < numOfEntries;
+		}
+		
+		public T next()
+		{
+			if (expectedModifications != modifications)
+			{
+				throw new ConcurrentModificationException();
+			}
+			else if (hasNext())
+			{
+				wasNextCalled = true;
+				return entries[nextPosition++];
+			}
+			else
+			{
+				throw new NoSuchElementException("Illegal call to next(); iterator is after end of list.");
+			}
+		}
+		
+		public void remove()
+		{
+			if (wasNextCalled)
+			{
+				ArrayListWithIterator.this.remove(--nextPosition);
+				expectedModifications = modifications;
+				wasNextCalled = false;
+			}
+			else
+			{
+				throw new IllegalStateException("Illegal call to remove(); next() was not called.");
+			}
+		}
+	}
+}
@@ -0,0 +1,159 @@
+package Data_Structures;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+import Exceptions.EmptyStackException;
+import Interfaces.StackInterface;
+
+/**
+ * Generic class implementing a stack in an array
+ * @param <T> generic parameter
+ */
+public class ArrayStack<T> implements StackInterface<T>
+{
+	private T[] entries;
+	private int numOfElements;
+	
+	/**
+	 * Default Constructor
+	 */
+	public ArrayStack()
+	{
+		this(8);
+	}
+	
+	/**
+	 * Parameterized Constructor
+	 * @param capacity number of entries held before growing
+	 */
+	@SuppressWarnings("unchecked")
+	public ArrayStack(int capacity)
+	{
+		entries = (T[]) new Object[Math.max(1, capacity)];
+		numOfElements = 0;
+	}
+
+	/**
+	 * Method used to push a new entry
+	 * @param newEntry a new entry
+	 */
+	public void push(T newEntry)
+	{
+		if (numOfElements == entries.length)
+		{
+			entries = Arrays.copyOf(entries, numOfElements * 2);
+		}
+		entries[numOfElements++] = newEntry;
+	}
+	
+	/**
+	 * Method used to pop the top entry
+	 * @return the top entry
+	 * @throws EmptyStackException an exception thrown when the stack is empty and attempted to pop().
+	 */
+	public T pop() throws EmptyStackException
+	{
+		if (isEmpty())
+		{
+			throw new EmptyStackException();
+		}
+		else
+		{
+			T topData = entries[--numOfElements];
+			entries[numOfElements] = null;
+			return topData;
+		}
+	}
+	
+	/**
+	 * Method used to return the top entry without popping it
+	 * @return the top entry
+	 * @throws EmptyStackException an exception thrown when the stack is empty and attempted to peek().
+	 */
+	public T peek() throws EmptyStackException
+	{
+		if (isEmpty())
+		{
+			throw new EmptyStackException();
+		}
+		else
+		{
+			return entries[numOfElements - 1];
+		}
+	}
+	
+	/**
+	 * Method used to check if the stack is empty
+	 * @return true if empty
+	 */
+	public boolean isEmpty()
+	{
+		return numOfElements == 0;
+	}
+	
+	/**
+	 * Getter method for the number of entries
+	 * @return the size
+	 */
+	public int getSize()
+	{
+		return numOfElements;
+	}
+	
+	/**
+	 * Method used to clear the stack
+	 */
+	public void clear()
+	{
+		Arrays.fill(entries, 0, numOfElements, null);
+		numOfElements = 0;
+	}
+	
+	/**
+	 * Views the stack as a read-only list, from the top entry to the bottom entry.
+	 * The view is not a copy: it changes as the stack does.
+	 * @return List view of Stack
+	 */
+	public List<T> asList()
+	{
+		return new TopDownView();
+	}
+	
+	/**
+	 * Turns Stack into ArrayList, from the top entry to the bottom entry
+	 * @return ArrayList of Stack
+	 */
+	public ArrayList<T> toArrayList()
+	{
+		ArrayList<T> arrayList = new ArrayList<T>(numOfElements);
+		for (int i = numOfElements - 1; i >= 0; i--)
+		{
+			arrayList.add(entries[i]);
+		}
+		return arrayList;
+	}
+	
+	/**
+	 * Inner class implementing the read-only list view
+	 */
+	private class TopDownView extends AbstractList<T> implements RandomAccess
+	{
+		public T get(int index)
+		{
+			if (index < 0 || index >= numOfElements)
+			{
+				throw new IndexOutOfBoundsException("Index " + index + " of " + numOfElements);
+			}
+			return entries[numOfElements - 1 - index];
+		}
+		
+		public int size()
+		{
+			return numOfElements;
+		}
+	}
+}
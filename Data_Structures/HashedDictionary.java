@@ -0,0 +1,322 @@
+package Data_Structures;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import Interfaces.DictionaryInterface;
+import JavaFX.EntryNode;
+
+/**
+ * Class representing a hashed dictionary, with separate chaining of linked entries
+ * @param <K> generic key
+ * @param <V> generic value
+ */
+public class HashedDictionary<K, V> implements DictionaryInterface<K, V>
+{
+	private static final int DEFAULT_CAPACITY = 16;
+	private static final double MAX_LOAD_FACTOR = 0.75;
+	
+	private EntryNode<K, V>[] table;
+	private int numOfEntries;
+	
+	/**
+	 * Default constructor
+	 */
+	public HashedDictionary()
+	{
+		this(DEFAULT_CAPACITY);
+	}
+	
+	/**
+	 * Parameterized constructor, sizes the table so the expected entries are added without rehashing
+	 * @param expectedEntries number of entries expected
+	 */
+	public HashedDictionary(int expectedEntries)
+	{
+		table = newTable(tableSizeFor(expectedEntries));
+		numOfEntries = 0;
+	}
+	
+	/**
+	 * Copy constructor
+	 * @param dictionary dictionary to copy
+	 */
+	public HashedDictionary(DictionaryInterface<K, V> dictionary)
+	{
+		this(dictionary.getSize());
+		
+		Iterator<K> keyIterator = dictionary.getKeyIterator();
+		
+		while (keyIterator.hasNext())
+		{
+			K key = keyIterator.next();
+			add(key, dictionary.getValue(key));
+		}
+	}
+	
+	/** Adds a new entry to this dictionary. If the given search key already exists in the dictionary, replaces the corresponding value. 
+	 *  @param key An object search key of the new entry. 
+	 *  @param value An object associated with the search key. 
+	 *  @return Either null if the new entry was added to the dictionary or the value that was associated with key if that value was replaced.
+	 */
+	public V add(K key, V value) 
+	{
+		if (key == null || value == null)
+		{
+			throw new IllegalArgumentException();
+		}
+		
+		int index = indexFor(key, table.length);
+		
+		for (EntryNode<K, V> currentNode = table[index]; currentNode != null; currentNode = currentNode.getNextNode())
+		{
+			if (key.equals(currentNode.getKey()))
+			{
+				V oldValue = currentNode.getValue();
+				currentNode.setValue(value);
+				return oldValue;
+			}
+		}
+		
+		table[index] = new EntryNode<K, V>(table[index], key, value);
+		numOfEntries++;
+		
+		if (numOfEntries > table.length * MAX_LOAD_FACTOR)
+		{
+			rehash(table.length * 2);
+		}
+		return null;
+	}
+
+	/** Removes a specific entry from this dictionary. 
+	 * @param key An object search key of the entry to be removed.
+	 * @return Either the value that was associated with the search key or null if no such object exists.
+	 */
+	public V remove(K key) 
+	{
+		int index = indexFor(key, table.length);
+		EntryNode<K, V> nodeBefore = null;
+		
+		for (EntryNode<K, V> currentNode = table[index]; currentNode != null; currentNode = currentNode.getNextNode())
+		{
+			if (key.equals(currentNode.getKey()))
+			{
+				if (nodeBefore == null)
+				{
+					table[index] = currentNode.getNextNode();
+				}
+				else
+				{
+					nodeBefore.setNextNode(currentNode.getNextNode());
+				}
+				numOfEntries--;
+				return currentNode.getValue();
+			}
+			nodeBefore = currentNode;
+		}
+		
+		return null;
+	}
+	
+	/** Retrieves from this dictionary the value associated with a given search key.
+	 * @param key An object search key of the entry to be retrieved.
+	 * @return Either the value that is associated with the search key or null if no such object exists.
+	 */
+	public V getValue(K key) 
+	{
+		for (EntryNode<K, V> currentNode = table[indexFor(key, table.length)]; currentNode != null; currentNode = currentNode.getNextNode())
+		{
+			if (key.equals(currentNode.getKey()))
+			{
+				return currentNode.getValue();
+			}
+		}
+		
+		return null;
+	}
+
+	/** Sees whether a specific entry is in this dictionary. 
+	 * @param key An object search key of the desired entry.
+	 * @return True if key is associated with an entry in the dictionary.
+	 */
+	public boolean contains(K key) 
+	{
+		return getValue(key) != null;
+	}
+
+	/** Creates an iterator that traverses all search keys in this dictionary. 
+	 * @return An iterator that provides sequential access to the search keys in the dictionary.
+	 */
+	public Iterator<K> getKeyIterator() 
+	{
+		return new KeyIterator();
+	}
+
+	/** Creates an iterator that traverses all values in this dictionary. 
+	 * @return An iterator that provides sequential access to the search keys in the dictionary.
+	 */
+	public Iterator<V> getValueIterator() 
+	{
+		return new ValueIterator();
+	}
+
+	/** Sees whether this dictionary is empty.
+	 * @return True if the dictionary is empty.
+	 */
+	public boolean isEmpty() 
+	{
+		return numOfEntries == 0;
+	}
+
+	/** Gets the size of this dictionary.
+	 * @return The number of entries (key-value pairs) currently in the dictionary.
+	 */
+	public int getSize() 
+	{
+		return numOfEntries;
+	}
+
+	/** Removes all entries from this dictionary.
+	 */
+	public void clear() 
+	{
+		for (int i = 0; i < table.length; i++)
+		{
+			table[i] = null;
+		}
+		numOfEntries = 0;
+	}
+	
+	/**
+	 * Grows the table so that a number of entries fit without rehashing
+	 * @param expectedEntries number of entries expected
+	 */
+	public void ensureCapacity(int expectedEntries)
+	{
+		int length = tableSizeFor(expectedEntries);
+		if (table.length < length)
+		{
+			rehash(length);
+		}
+	}
+	
+	/**
+	 * Method grows the table and redistributes the entries
+	 * @param length new table length, a power of two
+	 */
+	private void rehash(int length)
+	{
+		EntryNode<K, V>[] oldTable = table;
+		table = newTable(length);
+		
+		for (int i = 0; i < oldTable.length; i++)
+		{
+			EntryNode<K, V> currentNode = oldTable[i];
+			while (currentNode != null)
+			{
+				EntryNode<K, V> nextNode = currentNode.getNextNode();
+				int index = indexFor(currentNode.getKey(), table.length);
+				currentNode.setNextNode(table[index]);
+				table[index] = currentNode;
+				currentNode = nextNode;
+			}
+		}
+	}
+	
+	/**
+	 * Method computes the bucket of a key, spreading the high bits of the hash code
+	 * @param key search key
+	 * @param length table length, a power of two
+	 * @return the bucket index
+	 */
+	private static int indexFor(Object key, int length)
+	{
+		int hash = key.hashCode();
+		return (hash ^ (hash >>> 16)) & (length - 1);
+	}
+	
+	/**
+	 * Method computes the smallest power of two table holding a number of entries under the load factor
+	 * @param expectedEntries number of entries
+	 * @return the table length
+	 */
+	private static int tableSizeFor(int expectedEntries)
+	{
+		int length = DEFAULT_CAPACITY;
+		while (length < (1 << 30) && length * MAX_LOAD_FACTOR < expectedEntries)
+		{
+			length *= 2;
+		}
+		return length;
+	}
+	
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private static <K, V> EntryNode<K, V>[] newTable(int length)
+	{
+		return (EntryNode<K, V>[]) new EntryNode[length];
+	}
+	
+	/**
+	 * Inner class walking the entries bucket by bucket
+	 */
+	private class EntryIterator
+	{
+		private int nextBucket;
+		private EntryNode<K, V> nextNode;
+		
+		private EntryIterator()
+		{
+			nextBucket = 0;
+			nextNode = null;
+			advance();
+		}
+		
+		private void advance()
+		{
+			while (nextNode == null && nextBucket < table.length)
+			{
+				nextNode = table[nextBucket++];
+			}
+		}
+		
+		public boolean hasNext()
+		{
+			return nextNode != null;
+		}
+		
+		protected EntryNode<K, V> nextEntry()
+		{
+			if (nextNode == null)
+			{
+				throw new NoSuchElementException("Illegal call to next(); iterator is after end of dictionary.");
+			}
+			EntryNode<K, V> entry = nextNode;
+			nextNode = nextNode.getNextNode();
+			advance();
+			return entry;
+		}
+		
+		public void remove()
+		{
+			throw new UnsupportedOperationException("remove() is not supported by this iterator");
+		}
+	}
+	
+	//
+	private class KeyIterator extends EntryIterator implements Iterator<K>
+	{
+		public K next()
+		{
+			return nextEntry().getKey();
+		}
+	}
+	
+	//
+	private class ValueIterator extends EntryIterator implements Iterator<V>
+	{
+		public V next()
+		{
+			return nextEntry().getValue();
+		}
+	}
+}
@@ -0,0 +1,122 @@
+package Data_Structures;
+
+import java.util.Arrays;
+
+/**
+ * Class implementing a growable list of ints, without boxing
+ */
+public class IntArrayList
+{
+	private int[] values;
+	private int size;
+	
+	/**
+	 * Default Constructor
+	 */
+	public IntArrayList()
+	{
+		this(16);
+	}
+	
+	/**
+	 * Parameterized constructor
+	 * @param capacity number of values held before growing
+	 */
+	public IntArrayList(int capacity)
+	{
+		values = new int[Math.max(1, capacity)];
+		size = 0;
+	}
+	
+	/**
+	 * Method adds a value to the end of the list
+	 * @param value value to add
+	 */
+	public void add(int value)
+	{
+		if (size == values.length)
+		{
+			values = Arrays.copyOf(values, size * 2);
+		}
+		values[size++] = value;
+	}
+	
+	/**
+	 * Method returns the value at a position
+	 * @param index position, from 0
+	 * @return the value
+	 * @throws IndexOutOfBoundsException thrown if index is not below getSize()
+	 */
+	public int get(int index)
+	{
+		if (index < 0 || index >= size)
+		{
+			throw new IndexOutOfBoundsException("Index " + index + " of " + size);
+		}
+		return values[index];
+	}
+	
+	/**
+	 * Method replaces the value at a position
+	 * @param index position, from 0
+	 * @param value new value
+	 * @throws IndexOutOfBoundsException thrown if index is not below getSize()
+	 */
+	public void set(int index, int value)
+	{
+		if (index < 0 || index >= size)
+		{
+			throw new IndexOutOfBoundsException("Index " + index + " of " + size);
+		}
+		values[index] = value;
+	}
+	
+	/**
+	 * Method removes and returns the last value
+	 * @return the last value
+	 * @throws IndexOutOfBoundsException thrown if the list is empty
+	 */
+	public int removeLast()
+	{
+		if (size == 0)
+		{
+			throw new IndexOutOfBoundsException("Empty list");
+		}
+		return values[--size];
+	}
+	
+	/**
+	 * Getter method for the number of values
+	 * @return the size
+	 */
+	public int getSize()
+	{
+		return size;
+	}
+	
+	/**
+	 * Method determines if the list is empty
+	 * @return true if the list has no values
+	 */
+	public boolean isEmpty()
+	{
+		return size == 0;
+	}
+	
+	/**
+	 * Method removes every value, keeping the capacity
+	 */
+	public void clear()
+	{
+		size = 0;
+	}
+	
+	/**
+	 * Method copies the values
+	 * @return an array of the values in order
+	 */
+	public int[] toArray()
+	{
+		return Arrays.copyOf(values, size);
+	}
+}
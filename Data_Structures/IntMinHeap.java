@@ -0,0 +1,229 @@
+package Data_Structures;
+
+import java.util.Arrays;
+
+/**
+ * Class implementing a binary min-heap of the ints from 0 to a capacity, each with an int key.
+ * The heap knows where each int is, so the key of an int already in the heap can be lowered in place
+ * instead of adding the int again. Equal keys are ordered by the smaller int.
+ */
+public class IntMinHeap
+{
+	private int[] heap; //ints in heap order
+	private int[] keys; //keys in heap order
+	private int[] positions; //position of each int in the heap, -1 if not in the heap
+	private int size;
+	
+	/**
+	 * Parameterized constructor
+	 * @param capacity ints from 0 to capacity - 1 can be held
+	 */
+	public IntMinHeap(int capacity)
+	{
+		capacity = Math.max(1, capacity);
+		heap = new int[capacity];
+		keys = new int[capacity];
+		positions = new int[capacity];
+		Arrays.fill(positions, -1);
+		size = 0;
+	}
+	
+	/**
+	 * Method adds an int, or lowers its key if it is in the heap with a larger key
+	 * @param value int to add
+	 * @param key key of the int
+	 * @return true if the heap changed
+	 */
+	public boolean offer(int value, int key)
+	{
+		int position = positions[value];
+		
+		if (position < 0)
+		{
+			position = size++;
+			heap[position] = value;
+			keys[position] = key;
+			positions[value] = position;
+		}
+		else if (key < keys[position])
+		{
+			keys[position] = key;
+		}
+		else
+		{
+			return false;
+		}
+		
+		siftUp(position);
+		return true;
+	}
+	
+	/**
+	 * Method removes the int with the smallest key
+	 * @return the int
+	 * @throws IllegalStateException thrown if the heap is empty
+	 */
+	public int poll()
+	{
+		if (size == 0)
+		{
+			throw new IllegalStateException("Empty heap");
+		}
+		
+		int top = heap[0];
+		positions[top] = -1;
+		size--;
+		
+		if (size > 0)
+		{
+			heap[0] = heap[size];
+			keys[0] = keys[size];
+			positions[heap[0]] = 0;
+			siftDown(0);
+		}
+		return top;
+	}
+	
+	/**
+	 * Method returns the smallest key
+	 * @return the key of the int poll would remove
+	 * @throws IllegalStateException thrown if the heap is empty
+	 */
+	public int peekKey()
+	{
+		if (size == 0)
+		{
+			throw new IllegalStateException("Empty heap");
+		}
+		return keys[0];
+	}
+	
+	/**
+	 * Method determines if an int is in the heap
+	 * @param value int
+	 * @return true if the int is in the heap
+	 */
+	public boolean contains(int value)
+	{
+		return positions[value] >= 0;
+	}
+	
+	/**
+	 * Getter method for the number of ints
+	 * @return the size
+	 */
+	public int getSize()
+	{
+		return size;
+	}
+	
+	/**
+	 * Method determines if the heap is empty
+	 * @return true if the heap has no ints
+	 */
+	public boolean isEmpty()
+	{
+		return size == 0;
+	}
+	
+	/**
+	 * Method grows the heap to hold more ints, keeping its contents
+	 * @param capacity ints from 0 to capacity - 1 can be held
+	 */
+	public void ensureCapacity(int capacity)
+	{
+		if (capacity > positions.length)
+		{
+			int length = Math.max(capacity, positions.length * 2);
+			int oldLength = positions.length;
+			heap = Arrays.copyOf(heap, length);
+			keys = Arrays.copyOf(keys, length);
+			positions = Arrays.copyOf(positions, length);
+			Arrays.fill(positions, oldLength, length, -1);
+		}
+	}
+	
+	/**
+	 * Method removes every int, in time proportional to the size
+	 */
+	public void clear()
+	{
+		for (int i = 0; i < size; i++)
+		{
+			positions[heap[i]] = -1;
+		}
+		size = 0;
+	}
+	
+	/**
+	 * Method determines if the entry at one position goes before the entry at another
+	 * @param a position
+	 * @param b position
+	 * @return true if a has the smaller key, or the same key and the smaller int
+	 */
+	private boolean before(int a, int b)
+	{
+		return keys[a] < keys[b] || (keys[a] == keys[b] && heap[a] < heap[b]);
+	}
+	
+	/**
+	 * Method moves an entry toward the root until its parent goes before it
+	 * @param position position of the entry
+	 */
+	private void siftUp(int position)
+	{
+		while (position > 0)
+		{
+			int parent = (position - 1) >>> 1;
+			if (!before(position, parent))
+			{
+				break;
+			}
+			swap(position, parent);
+			position = parent;
+		}
+	}
+	
+	/**
+	 * Method moves an entry toward the leaves until it goes before its children
+	 * @param position position of the entry
+	 */
+	private void siftDown(int position)
+	{
+		while (true)
+		{
+			int child = 2 * position + 1;
+			if (child >= size)
+			{
+				break;
+			}
+			if (child + 1 < size && before(child + 1, child))
+			{
+				child++;
+			}
+			if (!before(child, position))
+			{
+				break;
+			}
+			swap(position, child);
+			position = child;
+		}
+	}
+	
+	/**
+	 * Method swaps two entries
+	 * @param a position
+	 * @param b position
+	 */
+	private void swap(int a, int b)
+	{
+		int value = heap[a];
+		int key = keys[a];
+		heap[a] = heap[b];
+		keys[a] = keys[b];
+		heap[b] = value;
+		keys[b] = key;
+		positions[heap[a]] = a;
+		positions[heap[b]] = b;
+	}
+}
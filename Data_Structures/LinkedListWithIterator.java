@@ -8,6 +8,7 @@ import java.util.ListIterator;
 import java.util.NoSuchElementException;
 
 import Interfaces.ListWithIteratorInterface;
+import Logging.Log;
 
 /**
  * Class implementing a linked list with an inner iterator class
@@ -39,9 +40,9 @@ public class LinkedListWithIterator<T> implements ListWithIteratorInterface<T>
 		lastNode = null;
 		numOfEntries = 0;
 		
-		for (int i = 0; i < list.getLength(); i++)
+		for (T entry : list)
 		{
-			add(list.getEntry(i));
+			add(entry);
 		}
 	}
 	
@@ -52,8 +53,6 @@ public class LinkedListWithIterator<T> implements ListWithIteratorInterface<T>
 	 */
 	public void add(T newEntry)
 	{
-		System.out.println("Adding in list");
-		
 		Node<T> newNode = new Node<T>(newEntry);
 		
 		if(isEmpty())
@@ -66,7 +65,10 @@ public class LinkedListWithIterator<T> implements ListWithIteratorInterface<T>
 		}
 		lastNode = newNode; //lastNode always has to be set to newNode when adding to the back
 		numOfEntries++;
-		System.out.println("Total entries: " + numOfEntries);
+		if (Log.STRUCTURES.isTraceEnabled())
+		{
+			Log.STRUCTURES.trace(() -> "Added in list, total entries: " + numOfEntries);
+		}
 	}
 	
 	/** Adds a new entry at a specified position within this list.
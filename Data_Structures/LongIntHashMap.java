@@ -0,0 +1,215 @@
+package Data_Structures;
+
+import java.util.Arrays;
+
+/**
+ * Class implementing a hash map from long keys to int values, without boxing.
+ * Entries are kept in open-addressed arrays probed linearly, and removing an entry shifts the entries
+ * after it back instead of leaving a marker.
+ */
+public class LongIntHashMap
+{
+	private static final float LOAD_FACTOR = 0.5f;
+	
+	private long[] keys;
+	private int[] values;
+	private boolean[] used;
+	private int mask;
+	private int size;
+	private int missingValue; //returned by get for keys not in the map
+	
+	/**
+	 * Default Constructor, get returns -1 for keys not in the map
+	 */
+	public LongIntHashMap()
+	{
+		this(16, -1);
+	}
+	
+	/**
+	 * Parameterized constructor
+	 * @param expectedEntries number of entries held before growing
+	 * @param missingValue value get returns for keys not in the map
+	 */
+	public LongIntHashMap(int expectedEntries, int missingValue)
+	{
+		int length = 2;
+		while (length * LOAD_FACTOR < expectedEntries)
+		{
+			length <<= 1;
+		}
+		allocate(length);
+		this.missingValue = missingValue;
+	}
+	
+	/**
+	 * Method maps a key to a value
+	 * @param key key
+	 * @param value value
+	 * @return the value the key had, or the missing value
+	 */
+	public int put(long key, int value)
+	{
+		int slot = find(key);
+		if (used[slot])
+		{
+			int old = values[slot];
+			values[slot] = value;
+			return old;
+		}
+		
+		used[slot] = true;
+		keys[slot] = key;
+		values[slot] = value;
+		if (++size > keys.length * LOAD_FACTOR)
+		{
+			rehash(keys.length * 2);
+		}
+		return missingValue;
+	}
+	
+	/**
+	 * Method returns the value of a key
+	 * @param key key
+	 * @return the value, or the missing value if the key is not in the map
+	 */
+	public int get(long key)
+	{
+		int slot = find(key);
+		return used[slot] ? values[slot] : missingValue;
+	}
+	
+	/**
+	 * Method determines if a key is in the map
+	 * @param key key
+	 * @return true if the key has a value
+	 */
+	public boolean containsKey(long key)
+	{
+		return used[find(key)];
+	}
+	
+	/**
+	 * Method removes a key
+	 * @param key key
+	 * @return the value the key had, or the missing value
+	 */
+	public int remove(long key)
+	{
+		int slot = find(key);
+		if (!used[slot])
+		{
+			return missingValue;
+		}
+		
+		int old = values[slot];
+		used[slot] = false;
+		size--;
+		
+		//shifts back the entries of the probe run that could not be placed in the emptied slot
+		int empty = slot;
+		int next = (slot + 1) & mask;
+		while (used[next])
+		{
+			int home = slot(keys[next]);
+			if (((next - home) & mask) >= ((next - empty) & mask))
+			{
+				keys[empty] = keys[next];
+				values[empty] = values[next];
+				used[empty] = true;
+				used[next] = false;
+				empty = next;
+			}
+			next = (next + 1) & mask;
+		}
+		return old;
+	}
+	
+	/**
+	 * Getter method for the number of entries
+	 * @return the size
+	 */
+	public int getSize()
+	{
+		return size;
+	}
+	
+	/**
+	 * Method determines if the map is empty
+	 * @return true if the map has no entries
+	 */
+	public boolean isEmpty()
+	{
+		return size == 0;
+	}
+	
+	/**
+	 * Method removes every entry, keeping the capacity
+	 */
+	public void clear()
+	{
+		Arrays.fill(used, false);
+		size = 0;
+	}
+	
+	/**
+	 * Method finds the slot of a key, or the empty slot where it would go
+	 * @param key key
+	 * @return the slot
+	 */
+	private int find(long key)
+	{
+		int slot = slot(key);
+		while (used[slot] && keys[slot] != key)
+		{
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+	
+	/**
+	 * Method returns the first slot probed for a key
+	 * @param key key
+	 * @return the slot
+	 */
+	private int slot(long key)
+	{
+		int h = (int) ((key * 0x9E3779B97F4A7C15L) >>> 32);
+		return (h ^ (h >>> 16)) & mask;
+	}
+	
+	/**
+	 * Method allocates empty arrays
+	 * @param length number of slots, a power of 2
+	 */
+	private void allocate(int length)
+	{
+		keys = new long[length];
+		values = new int[length];
+		used = new boolean[length];
+		mask = length - 1;
+	}
+	
+	/**
+	 * Method moves the entries into larger arrays
+	 * @param length number of slots, a power of 2
+	 */
+	private void rehash(int length)
+	{
+		long[] oldKeys = keys;
+		int[] oldValues = values;
+		boolean[] oldUsed = used;
+		allocate(length);
+		
+		for (int i = 0; i < oldKeys.length; i++)
+		{
+			if (oldUsed[i])
+			{
+				int slot = find(oldKeys[i]);
+				used[slot] = true;
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+			}
+		}
+	}
+}
@@ -0,0 +1,451 @@
+package Data_Structures;
+
+/**
+ * Class implementing an immutable hash map: adding or removing an entry returns a new map and leaves this
+ * one unchanged, so a map can be read by any number of threads while newer maps are made from it.
+ * The entries are kept in a hash array mapped trie, each level indexed by 5 bits of the hash, and a change
+ * copies only the nodes on the path to its entry; the rest of the trie is shared with the new map.
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class PersistentHashMap<K, V>
+{
+	private static final int BITS = 5;
+	private static final int MASK = (1 << BITS) - 1;
+	
+	private static final PersistentHashMap<Object, Object> EMPTY = new PersistentHashMap<Object, Object>(null, 0);
+	
+	private final Object root; //BitmapNode, null when empty
+	private final int size;
+	
+	/**
+	 * Constructor
+	 * @param root root node
+	 * @param size number of entries
+	 */
+	private PersistentHashMap(Object root, int size)
+	{
+		this.root = root;
+		this.size = size;
+	}
+	
+	/**
+	 * Returns the empty map
+	 * @param <K> key type
+	 * @param <V> value type
+	 * @return the empty map
+	 */
+	@SuppressWarnings("unchecked")
+	public static <K, V> PersistentHashMap<K, V> empty()
+	{
+		return (PersistentHashMap<K, V>) EMPTY;
+	}
+	
+	/**
+	 * Retrieves the value of a key
+	 * @param key key to look up
+	 * @return the value, or null if the key is not in this map
+	 */
+	@SuppressWarnings("unchecked")
+	public V get(K key)
+	{
+		int hash = hash(key);
+		Object node = root;
+		int shift = 0;
+		while (node != null)
+		{
+			if (node instanceof CollisionNode)
+			{
+				return (V) ((CollisionNode) node).get(key);
+			}
+			
+			BitmapNode bitmapNode = (BitmapNode) node;
+			int bit = 1 << ((hash >>> shift) & MASK);
+			if ((bitmapNode.bitmap & bit) == 0)
+			{
+				return null;
+			}
+			Object slot = bitmapNode.slots[bitmapNode.index(bit)];
+			if (slot instanceof Entry)
+			{
+				Entry entry = (Entry) slot;
+				return entry.hash == hash && entry.key.equals(key) ? (V) entry.value : null;
+			}
+			node = slot;
+			shift += BITS;
+		}
+		return null;
+	}
+	
+	/**
+	 * Sees whether a key is in this map
+	 * @param key key to look up
+	 * @return true if the key is in this map
+	 */
+	public boolean containsKey(K key)
+	{
+		return get(key) != null;
+	}
+	
+	/**
+	 * Returns a map with an entry added, or its value replaced
+	 * @param key key of the entry, not null
+	 * @param value value of the entry, not null
+	 * @return the new map, or this map if it already held the entry
+	 */
+	public PersistentHashMap<K, V> plus(K key, V value)
+	{
+		if (key == null || value == null)
+		{
+			throw new NullPointerException();
+		}
+		
+		Entry entry = new Entry(hash(key), key, value);
+		if (root == null)
+		{
+			return new PersistentHashMap<K, V>(new BitmapNode(1 << (entry.hash & MASK), new Object[] {entry}), 1);
+		}
+		
+		int[] added = new int[1];
+		Object newRoot = put(root, entry, 0, added);
+		return newRoot == root ? this : new PersistentHashMap<K, V>(newRoot, size + added[0]);
+	}
+	
+	/**
+	 * Returns a map without the entry of a key
+	 * @param key key of the entry
+	 * @return the new map, or this map if the key is not in it
+	 */
+	public PersistentHashMap<K, V> minus(K key)
+	{
+		if (root == null)
+		{
+			return this;
+		}
+		
+		Object newRoot = remove(root, hash(key), key, 0);
+		if (newRoot == root)
+		{
+			return this;
+		}
+		//the root stays a bitmap node, so a lone entry hoisted out of a child is wrapped again
+		if (newRoot instanceof Entry)
+		{
+			Entry entry = (Entry) newRoot;
+			newRoot = new BitmapNode(1 << (entry.hash & MASK), new Object[] {entry});
+		}
+		return new PersistentHashMap<K, V>(newRoot, size - 1);
+	}
+	
+	/**
+	 * Getter method for the number of entries
+	 * @return the number of entries
+	 */
+	public int getSize()
+	{
+		return size;
+	}
+	
+	/**
+	 * Sees whether this map is empty
+	 * @return true if this map has no entries
+	 */
+	public boolean isEmpty()
+	{
+		return size == 0;
+	}
+	
+	/**
+	 * Method spreads the hash code of a key
+	 * @param key key
+	 * @return the hash
+	 */
+	private static int hash(Object key)
+	{
+		int h = key.hashCode();
+		return h ^ (h >>> 16);
+	}
+	
+	/**
+	 * Method adds an entry below a node, copying the nodes it changes
+	 * @param node node
+	 * @param entry entry to add
+	 * @param shift hash bits used above the node
+	 * @param added set to 1 if the entry is new rather than a replacement
+	 * @return the changed node, or the node itself if nothing changed
+	 */
+	private static Object put(Object node, Entry entry, int shift, int[] added)
+	{
+		if (node instanceof CollisionNode)
+		{
+			CollisionNode collisionNode = (CollisionNode) node;
+			if (collisionNode.hash == entry.hash)
+			{
+				return collisionNode.put(entry, added);
+			}
+			added[0] = 1;
+			return merge(collisionNode, collisionNode.hash, entry, shift);
+		}
+		
+		BitmapNode bitmapNode = (BitmapNode) node;
+		int bit = 1 << ((entry.hash >>> shift) & MASK);
+		int index = bitmapNode.index(bit);
+		if ((bitmapNode.bitmap & bit) == 0)
+		{
+			added[0] = 1;
+			return bitmapNode.insert(bit, index, entry);
+		}
+		
+		Object slot = bitmapNode.slots[index];
+		Object newSlot;
+		if (slot instanceof Entry)
+		{
+			Entry existing = (Entry) slot;
+			if (existing.hash == entry.hash && existing.key.equals(entry.key))
+			{
+				if (existing.value.equals(entry.value))
+				{
+					return node;
+				}
+				newSlot = entry;
+			}
+			else
+			{
+				added[0] = 1;
+				newSlot = merge(existing, existing.hash, entry, shift + BITS);
+			}
+		}
+		else
+		{
+			newSlot = put(slot, entry, shift + BITS, added);
+			if (newSlot == slot)
+			{
+				return node;
+			}
+		}
+		return bitmapNode.replace(index, newSlot);
+	}
+	
+	/**
+	 * Method makes a node holding an entry or collision node and a new entry with a different key
+	 * @param first existing entry or collision node
+	 * @param firstHash hash of the keys in first
+	 * @param second new entry
+	 * @param shift hash bits used above the node
+	 * @return the node
+	 */
+	private static Object merge(Object first, int firstHash, Entry second, int shift)
+	{
+		if (firstHash == second.hash)
+		{
+			return new CollisionNode(firstHash, new Entry[] {(Entry) first, second});
+		}
+		
+		int firstBit = 1 << ((firstHash >>> shift) & MASK);
+		int secondBit = 1 << ((second.hash >>> shift) & MASK);
+		if (firstBit == secondBit)
+		{
+			return new BitmapNode(firstBit, new Object[] {merge(first, firstHash, second, shift + BITS)});
+		}
+		return new BitmapNode(firstBit | secondBit, Integer.compareUnsigned(firstBit, secondBit) < 0 ? new Object[] {first, second} : new Object[] {second, first});
+	}
+	
+	/**
+	 * Method removes an entry below a node, copying the nodes it changes.
+	 * A node left with a single entry is replaced by the entry, so the trie stays as shallow as it can.
+	 * @param node node
+	 * @param hash hash of the key
+	 * @param key key of the entry
+	 * @param shift hash bits used above the node
+	 * @return the changed node, an entry, null if the node became empty, or the node itself if nothing changed
+	 */
+	private static Object remove(Object node, int hash, Object key, int shift)
+	{
+		if (node instanceof CollisionNode)
+		{
+			return ((CollisionNode) node).remove(key);
+		}
+		
+		BitmapNode bitmapNode = (BitmapNode) node;
+		int bit = 1 << ((hash >>> shift) & MASK);
+		if ((bitmapNode.bitmap & bit) == 0)
+		{
+			return node;
+		}
+		
+		int index = bitmapNode.index(bit);
+		Object slot = bitmapNode.slots[index];
+		Object newSlot;
+		if (slot instanceof Entry)
+		{
+			Entry entry = (Entry) slot;
+			if (entry.hash != hash || !entry.key.equals(key))
+			{
+				return node;
+			}
+			newSlot = null;
+		}
+		else
+		{
+			newSlot = remove(slot, hash, key, shift + BITS);
+			if (newSlot == slot)
+			{
+				return node;
+			}
+		}
+		
+		if (newSlot != null)
+		{
+			if (bitmapNode.slots.length == 1 && newSlot instanceof Entry)
+			{
+				return newSlot;
+			}
+			return bitmapNode.replace(index, newSlot);
+		}
+		else if (bitmapNode.slots.length == 1)
+		{
+			return null;
+		}
+		else if (bitmapNode.slots.length == 2 && bitmapNode.slots[1 - index] instanceof Entry)
+		{
+			return bitmapNode.slots[1 - index];
+		}
+		return bitmapNode.delete(bit, index);
+	}
+	
+	/**
+	 * Inner class for an entry
+	 */
+	private static class Entry
+	{
+		private final int hash;
+		private final Object key;
+		private final Object value;
+		
+		private Entry(int hash, Object key, Object value)
+		{
+			this.hash = hash;
+			this.key = key;
+			this.value = value;
+		}
+	}
+	
+	/**
+	 * Inner class for a trie node: a bitmap of the used 5-bit hash digits and, in digit order, the entry
+	 * or child node of each
+	 */
+	private static class BitmapNode
+	{
+		private final int bitmap;
+		private final Object[] slots;
+		
+		private BitmapNode(int bitmap, Object[] slots)
+		{
+			this.bitmap = bitmap;
+			this.slots = slots;
+		}
+		
+		private int index(int bit)
+		{
+			return Integer.bitCount(bitmap & (bit - 1));
+		}
+		
+		private BitmapNode insert(int bit, int index, Object slot)
+		{
+			Object[] newSlots = new Object[slots.length + 1];
+			System.arraycopy(slots, 0, newSlots, 0, index);
+			newSlots[index] = slot;
+			System.arraycopy(slots, index, newSlots, index + 1, slots.length - index);
+			return new BitmapNode(bitmap | bit, newSlots);
+		}
+		
+		private BitmapNode replace(int index, Object slot)
+		{
+			Object[] newSlots = slots.clone();
+			newSlots[index] = slot;
+			return new BitmapNode(bitmap, newSlots);
+		}
+		
+		private BitmapNode delete(int bit, int index)
+		{
+			Object[] newSlots = new Object[slots.length - 1];
+			System.arraycopy(slots, 0, newSlots, 0, index);
+			System.arraycopy(slots, index + 1, newSlots, index, slots.length - index - 1);
+			return new BitmapNode(bitmap & ~bit, newSlots);
+		}
+	}
+	
+	/**
+	 * Inner class for the entries whose keys have the same hash
+	 */
+	private static class CollisionNode
+	{
+		private final int hash;
+		private final Entry[] entries;
+		
+		private CollisionNode(int hash, Entry[] entries)
+		{
+			this.hash = hash;
+			this.entries = entries;
+		}
+		
+		private int find(Object key)
+		{
+			for (int i = 0; i < entries.length; i++)
+			{
+				if (entries[i].key.equals(key))
+				{
+					return i;
+				}
+			}
+			return -1;
+		}
+		
+		private Object get(Object key)
+		{
+			int i = find(key);
+			return i < 0 ? null : entries[i].value;
+		}
+		
+		private Object put(Entry entry, int[] added)
+		{
+			int i = find(entry.key);
+			Entry[] newEntries;
+			if (i < 0)
+			{
+				added[0] = 1;
+				newEntries = new Entry[entries.length + 1];
+				System.arraycopy(entries, 0, newEntries, 0, entries.length);
+				newEntries[entries.length] = entry;
+			}
+			else if (entries[i].value.equals(entry.value))
+			{
+				return this;
+			}
+			else
+			{
+				newEntries = entries.clone();
+				newEntries[i] = entry;
+			}
+			return new CollisionNode(hash, newEntries);
+		}
+		
+		private Object remove(Object key)
+		{
+			int i = find(key);
+			if (i < 0)
+			{
+				return this;
+			}
+			else if (entries.length == 2)
+			{
+				return entries[1 - i];
+			}
+			
+			Entry[] newEntries = new Entry[entries.length - 1];
+			System.arraycopy(entries, 0, newEntries, 0, i);
+			System.arraycopy(entries, i + 1, newEntries, i, entries.length - i - 1);
+			return new CollisionNode(hash, newEntries);
+		}
+	}
+}
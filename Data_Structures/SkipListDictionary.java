@@ -0,0 +1,338 @@
+package Data_Structures;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import Interfaces.DictionaryInterface;
+
+/**
+ * Class representing a sorted dictionary as a skip list. Entries are kept in key order, so iterating
+ * the keys from a given key takes time proportional to the keys visited after finding it in O(log n).
+ * @param <K> generic key, ordered by its natural order
+ * @param <V> generic value
+ */
+public class SkipListDictionary<K extends Comparable<? super K>, V> implements DictionaryInterface<K, V>
+{
+	private static final int MAX_LEVEL = 32;
+	
+	private SkipNode<K, V> head; //sentinel before the first entry, on every level
+	private int level; //number of levels in use
+	private int numOfEntries;
+	private long seed; //random levels
+	
+	/**
+	 * Default constructor
+	 */
+	public SkipListDictionary()
+	{
+		head = new SkipNode<K, V>(null, null, MAX_LEVEL);
+		level = 1;
+		numOfEntries = 0;
+		seed = 0x2545F4914F6CDD1DL;
+	}
+	
+	/** Adds a new entry to this dictionary. If the given search key already exists in the dictionary, replaces the corresponding value. 
+	 *  @param key An object search key of the new entry. 
+	 *  @param value An object associated with the search key. 
+	 *  @return Either null if the new entry was added to the dictionary or the value that was associated with key if that value was replaced.
+	 */
+	public V add(K key, V value) 
+	{
+		if (key == null || value == null)
+		{
+			throw new IllegalArgumentException();
+		}
+		
+		SkipNode<K, V>[] before = newLevels(MAX_LEVEL);
+		SkipNode<K, V> node = findBefore(key, before);
+		
+		if (node != null && key.compareTo(node.key) == 0)
+		{
+			V oldValue = node.value;
+			node.value = value;
+			return oldValue;
+		}
+		
+		int nodeLevel = randomLevel();
+		if (nodeLevel > level)
+		{
+			for (int i = level; i < nodeLevel; i++)
+			{
+				before[i] = head;
+			}
+			level = nodeLevel;
+		}
+		
+		SkipNode<K, V> newNode = new SkipNode<K, V>(key, value, nodeLevel);
+		for (int i = 0; i < nodeLevel; i++)
+		{
+			newNode.next[i] = before[i].next[i];
+			before[i].next[i] = newNode;
+		}
+		numOfEntries++;
+		return null;
+	}
+
+	/** Removes a specific entry from this dictionary. 
+	 * @param key An object search key of the entry to be removed.
+	 * @return Either the value that was associated with the search key or null if no such object exists.
+	 */
+	public V remove(K key) 
+	{
+		SkipNode<K, V>[] before = newLevels(MAX_LEVEL);
+		SkipNode<K, V> node = findBefore(key, before);
+		
+		if (node == null || key.compareTo(node.key) != 0)
+		{
+			return null;
+		}
+		
+		for (int i = 0; i < node.next.length; i++)
+		{
+			before[i].next[i] = node.next[i];
+		}
+		while (level > 1 && head.next[level - 1] == null)
+		{
+			level--;
+		}
+		numOfEntries--;
+		return node.value;
+	}
+	
+	/** Retrieves from this dictionary the value associated with a given search key.
+	 * @param key An object search key of the entry to be retrieved.
+	 * @return Either the value that is associated with the search key or null if no such object exists.
+	 */
+	public V getValue(K key) 
+	{
+		SkipNode<K, V> node = ceiling(key);
+		if (node != null && key.compareTo(node.key) == 0)
+		{
+			return node.value;
+		}
+		return null;
+	}
+
+	/** Sees whether a specific entry is in this dictionary. 
+	 * @param key An object search key of the desired entry.
+	 * @return True if key is associated with an entry in the dictionary.
+	 */
+	public boolean contains(K key) 
+	{
+		return getValue(key) != null;
+	}
+
+	/** Creates an iterator that traverses all search keys in this dictionary, in ascending order. 
+	 * @return An iterator that provides sequential access to the search keys in the dictionary.
+	 */
+	public Iterator<K> getKeyIterator() 
+	{
+		return new KeyIterator(head.next[0], null);
+	}
+
+	/** Creates an iterator that traverses all values in this dictionary, in ascending order of their keys. 
+	 * @return An iterator that provides sequential access to the values in the dictionary.
+	 */
+	public Iterator<V> getValueIterator() 
+	{
+		return new ValueIterator(head.next[0], null);
+	}
+	
+	/** Creates an iterator that traverses the search keys from one key up to another, in ascending order. 
+	 * @param fromKey lowest key, included; null to start at the first key
+	 * @param toKey highest key, excluded; null to end after the last key
+	 * @return An iterator that provides sequential access to the search keys in the range.
+	 */
+	public Iterator<K> getKeyIterator(K fromKey, K toKey) 
+	{
+		return new KeyIterator(fromKey == null ? head.next[0] : ceiling(fromKey), toKey);
+	}
+	
+	/** Creates an iterator that traverses the values of the search keys from one key up to another, in ascending order of their keys. 
+	 * @param fromKey lowest key, included; null to start at the first key
+	 * @param toKey highest key, excluded; null to end after the last key
+	 * @return An iterator that provides sequential access to the values in the range.
+	 */
+	public Iterator<V> getValueIterator(K fromKey, K toKey) 
+	{
+		return new ValueIterator(fromKey == null ? head.next[0] : ceiling(fromKey), toKey);
+	}
+
+	/** Sees whether this dictionary is empty.
+	 * @return True if the dictionary is empty.
+	 */
+	public boolean isEmpty() 
+	{
+		return numOfEntries == 0;
+	}
+
+	/** Gets the size of this dictionary.
+	 * @return The number of entries (key-value pairs) currently in the dictionary.
+	 */
+	public int getSize() 
+	{
+		return numOfEntries;
+	}
+
+	/** Removes all entries from this dictionary.
+	 */
+	public void clear() 
+	{
+		for (int i = 0; i < MAX_LEVEL; i++)
+		{
+			head.next[i] = null;
+		}
+		level = 1;
+		numOfEntries = 0;
+	}
+	
+	/**
+	 * Method finds the first entry with a key not below a key, recording the last entry before it on each level
+	 * @param key key
+	 * @param before receives the last entry before the key on each level in use
+	 * @return the first entry with a key not below the key, or null
+	 */
+	private SkipNode<K, V> findBefore(K key, SkipNode<K, V>[] before)
+	{
+		SkipNode<K, V> node = head;
+		for (int i = level - 1; i >= 0; i--)
+		{
+			while (node.next[i] != null && node.next[i].key.compareTo(key) < 0)
+			{
+				node = node.next[i];
+			}
+			before[i] = node;
+		}
+		return node.next[0];
+	}
+	
+	/**
+	 * Method finds the first entry with a key not below a key
+	 * @param key key
+	 * @return the entry, or null if every key is below the key
+	 */
+	private SkipNode<K, V> ceiling(K key)
+	{
+		SkipNode<K, V> node = head;
+		for (int i = level - 1; i >= 0; i--)
+		{
+			while (node.next[i] != null && node.next[i].key.compareTo(key) < 0)
+			{
+				node = node.next[i];
+			}
+		}
+		return node.next[0];
+	}
+	
+	/**
+	 * Method draws the level of a new entry, each level above the first with probability 1/4
+	 * @return the level
+	 */
+	private int randomLevel()
+	{
+		seed ^= seed << 13;
+		seed ^= seed >>> 7;
+		seed ^= seed << 17;
+		
+		int nodeLevel = 1;
+		long bits = seed;
+		while (nodeLevel < MAX_LEVEL && (bits & 3) == 0)
+		{
+			nodeLevel++;
+			bits >>>= 2;
+		}
+		return nodeLevel;
+	}
+	
+	/**
+	 * Method creates the array of next links of a node
+	 * @param levels number of levels
+	 * @return the array
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private static <K, V> SkipNode<K, V>[] newLevels(int levels)
+	{
+		return (SkipNode<K, V>[]) new SkipNode[levels];
+	}
+	
+	/**
+	 * Inner class for the entries of the skip list
+	 */
+	private static class SkipNode<K, V>
+	{
+		private K key;
+		private V value;
+		private SkipNode<K, V>[] next;
+		
+		private SkipNode(K key, V value, int nodeLevel)
+		{
+			this.key = key;
+			this.value = value;
+			next = newLevels(nodeLevel);
+		}
+	}
+	
+	/**
+	 * Inner class walking the entries in key order up to an excluded key
+	 */
+	private class EntryIterator
+	{
+		private SkipNode<K, V> nextNode;
+		private K toKey;
+		
+		private EntryIterator(SkipNode<K, V> first, K toKey)
+		{
+			nextNode = first;
+			this.toKey = toKey;
+		}
+		
+		public boolean hasNext()
+		{
+			return nextNode != null && (toKey == null || nextNode.key.compareTo(toKey) < 0);
+		}
+		
+		protected SkipNode<K, V> nextEntry()
+		{
+			if (!hasNext())
+			{
+				throw new NoSuchElementException("Illegal call to next(); iterator is after end of dictionary.");
+			}
+			SkipNode<K, V> entry = nextNode;
+			nextNode = nextNode.next[0];
+			return entry;
+		}
+		
+		public void remove()
+		{
+			throw new UnsupportedOperationException("remove() is not supported by this iterator");
+		}
+	}
+	
+	//
+	private class KeyIterator extends EntryIterator implements Iterator<K>
+	{
+		private KeyIterator(SkipNode<K, V> first, K toKey)
+		{
+			super(first, toKey);
+		}
+		
+		public K next()
+		{
+			return nextEntry().key;
+		}
+	}
+	
+	//
+	private class ValueIterator extends EntryIterator implements Iterator<V>
+	{
+		private ValueIterator(SkipNode<K, V> first, K toKey)
+		{
+			super(first, toKey);
+		}
+		
+		public V next()
+		{
+			return nextEntry().value;
+		}
+	}
+}
@@ -0,0 +1,89 @@
+package Data_Structures;
+
+import java.util.Arrays;
+
+/**
+ * Class implementing a set of ints from 0 to a capacity as a bitset, one bit per int.
+ * Clearing only touches the words that were set since the last clear, so a set sized for a large graph
+ * can be reused by searches that visit a small part of it.
+ */
+public class VisitedSet
+{
+	private long[] words;
+	private int[] dirtyWords; //indexes of the words set since the last clear
+	private int dirtyCount;
+	
+	/**
+	 * Parameterized constructor
+	 * @param capacity ints from 0 to capacity - 1 can be held
+	 */
+	public VisitedSet(int capacity)
+	{
+		words = new long[(Math.max(1, capacity) + 63) >>> 6];
+		dirtyWords = new int[16];
+		dirtyCount = 0;
+	}
+	
+	/**
+	 * Method adds an int
+	 * @param value int to add
+	 * @return true if the int was not in the set
+	 */
+	public boolean add(int value)
+	{
+		int word = value >>> 6;
+		long bit = 1L << value;
+		long current = words[word];
+		
+		if ((current & bit) != 0)
+		{
+			return false;
+		}
+		
+		if (current == 0)
+		{
+			if (dirtyCount == dirtyWords.length)
+			{
+				dirtyWords = Arrays.copyOf(dirtyWords, dirtyCount * 2);
+			}
+			dirtyWords[dirtyCount++] = word;
+		}
+		words[word] = current | bit;
+		return true;
+	}
+	
+	/**
+	 * Method determines if an int is in the set
+	 * @param value int
+	 * @return true if the int was added since the last clear
+	 */
+	public boolean contains(int value)
+	{
+		return (words[value >>> 6] & (1L << value)) != 0;
+	}
+	
+	/**
+	 * Method grows the set to hold more ints, keeping its contents
+	 * @param capacity ints from 0 to capacity - 1 can be held
+	 */
+	public void ensureCapacity(int capacity)
+	{
+		int length = (capacity + 63) >>> 6;
+		if (length > words.length)
+		{
+			words = Arrays.copyOf(words, Math.max(length, words.length * 2));
+		}
+	}
+	
+	/**
+	 * Method removes every int, in time proportional to the words that were set
+	 */
+	public void clear()
+	{
+		for (int i = 0; i < dirtyCount; i++)
+		{
+			words[dirtyWords[i]] = 0;
+		}
+		dirtyCount = 0;
+	}
+}
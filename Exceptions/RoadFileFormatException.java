@@ -0,0 +1,43 @@
+package Exceptions;
+
+import java.io.IOException;
+
+/**
+ * The RoadFileFormatException class is an exception class thrown if a line of a road file is malformed
+ */
+@SuppressWarnings("serial")
+public class RoadFileFormatException extends IOException 
+{
+	private String error;
+	private int lineNumber;
+	
+	/**
+	 * Constructor used to pass an error string and the offending line to the superclass constructor
+	 * @param error The informative error string
+	 * @param lineNumber number of the malformed line, starting at 1
+	 */
+	public RoadFileFormatException(String error, int lineNumber)
+	{
+		super("Line " + lineNumber + ": " + error);
+		this.error = error;
+		this.lineNumber = lineNumber;
+	}
+	
+	/**
+	 * Getter method for the error string without the line number
+	 * @return the error string
+	 */
+	public String getError()
+	{
+		return error;
+	}
+	
+	/**
+	 * Getter method for the number of the malformed line
+	 * @return the line number, starting at 1
+	 */
+	public int getLineNumber()
+	{
+		return lineNumber;
+	}
+}
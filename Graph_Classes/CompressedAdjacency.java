@@ -0,0 +1,373 @@
+package Graph_Classes;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+
+import Interfaces.AdjacencyInterface;
+import Logging.Log;
+
+/**
+ * Class implementing a compressed, read-only copy of the adjacency of a graph.
+ * A two-way road leaves both of its towns and a one-way road only its source. The roads leaving a town
+ * are sorted by destination and packed into one byte array per town: for each road, the difference from
+ * the previous destination id, the weight and the index of the road name in a shared name table, each as
+ * a variable-length integer (7 bits per byte, high bit set when more bytes follow). Roads are decoded
+ * while a cursor walks them. A road then takes a few bytes instead of a Road and two list nodes.
+ */
+public class CompressedAdjacency implements AdjacencyInterface
+{
+	private String[] townNames; //by town id, null where no town
+	private byte[][] roads; //packed roads by town id
+	private int[] degrees;
+	private String[] roadNames;
+	private long roadCount;
+	
+	/**
+	 * Constructor
+	 * @param townCount bound of the town ids
+	 */
+	private CompressedAdjacency(int townCount)
+	{
+		townNames = new String[townCount];
+		roads = new byte[townCount][];
+		degrees = new int[townCount];
+	}
+	
+	/**
+	 * Compresses the adjacency of a graph, keeping its town ids. Each town packs its outgoing roads, so a
+	 * two-way road is packed under both of its towns and a one-way road under its source only.
+	 * @param graph graph to compress
+	 * @return the compressed adjacency
+	 */
+	public static CompressedAdjacency of(Graph graph)
+	{
+		int townCount = graph.getTownIdBound();
+		CompressedAdjacency adjacency = new CompressedAdjacency(townCount);
+		Packer packer = new Packer();
+		
+		for (int id = 0; id < townCount; id++)
+		{
+			Town town = graph.getTownById(id);
+			if (town == null)
+			{
+				continue;
+			}
+			
+			adjacency.townNames[id] = town.getName();
+			Iterator<Road> townRoads = town.getOutgoingList().iterator();
+			while (townRoads.hasNext())
+			{
+				Road road = townRoads.next();
+				packer.add(road.getOpposite(town).getId(), road.getWeight(), road.getName());
+			}
+			adjacency.pack(id, packer);
+		}
+		
+		adjacency.finish(packer);
+		return adjacency;
+	}
+	
+	/**
+	 * Compresses the adjacency of a snapshot without building its graph, keeping its town indexes as ids
+	 * @param snapshot snapshot to compress
+	 * @return the compressed adjacency
+	 * @throws IOException thrown if the snapshot is corrupt
+	 */
+	public static CompressedAdjacency of(GraphSnapshot snapshot) throws IOException
+	{
+		int townCount = snapshot.getTownCount();
+		CompressedAdjacency adjacency = new CompressedAdjacency(townCount);
+		Packer packer = new Packer();
+		
+		String[] roadNameTable = new String[snapshot.getRoadNameCount()];
+		try
+		{
+			for (int i = 0; i < roadNameTable.length; i++)
+			{
+				roadNameTable[i] = snapshot.getRoadName(i);
+			}
+			
+			for (int id = 0; id < townCount; id++)
+			{
+				adjacency.townNames[id] = snapshot.getTownName(id);
+				
+				int from = snapshot.getRowStart(id);
+				int to = snapshot.getRowStart(id + 1);
+				if (from > to || to > snapshot.getArcCount())
+				{
+					throw new IOException("Corrupt graph snapshot row " + id + ".");
+				}
+				
+				for (int arc = from; arc < to; arc++)
+				{
+					int target = snapshot.getArcTarget(arc);
+					if (target < 0 || target >= townCount)
+					{
+						throw new IOException("Corrupt graph snapshot arc " + arc + ".");
+					}
+					packer.add(target, snapshot.getArcWeight(arc), roadNameTable[snapshot.getArcNameIndex(arc)]);
+				}
+				adjacency.pack(id, packer);
+			}
+		}
+		catch (IndexOutOfBoundsException e)
+		{
+			throw new IOException("Corrupt graph snapshot.", e);
+		}
+		
+		adjacency.finish(packer);
+		return adjacency;
+	}
+	
+	/**
+	 * Returns the number of town ids, some ids may have no town
+	 * @return the bound of the town ids
+	 */
+	public int getTownCount()
+	{
+		return townNames.length;
+	}
+	
+	/**
+	 * Returns the name of a town
+	 * @param town town id
+	 * @return the town name, or null if no town has the id
+	 */
+	public String getTownName(int town)
+	{
+		return townNames[town];
+	}
+	
+	/**
+	 * Returns the number of roads leaving a town
+	 * @param town town id
+	 * @return the degree of the town
+	 */
+	public int getDegree(int town)
+	{
+		return degrees[town];
+	}
+	
+	/**
+	 * Getter method for the number of roads leaving the towns, where a two-way road counts once per direction
+	 * @return the number of packed roads
+	 */
+	public long getRoadCount()
+	{
+		return roadCount;
+	}
+	
+	/**
+	 * Returns the number of bytes holding the packed roads, without array headers
+	 * @return the packed size
+	 */
+	public long getPackedSize()
+	{
+		long size = 0;
+		for (byte[] packed : roads)
+		{
+			size += packed.length;
+		}
+		return size;
+	}
+	
+	/**
+	 * Creates a cursor over the roads leaving a town
+	 * @return a new cursor
+	 */
+	public Cursor getCursor()
+	{
+		return new PackedCursor();
+	}
+	
+	/**
+	 * Method packs the roads collected for a town
+	 * @param town town id
+	 * @param packer roads of the town
+	 */
+	private void pack(int town, Packer packer)
+	{
+		degrees[town] = packer.size;
+		roads[town] = packer.pack();
+		roadCount += degrees[town];
+	}
+	
+	/**
+	 * Method completes the adjacency once every town is packed
+	 * @param packer packer holding the road name table
+	 */
+	private void finish(Packer packer)
+	{
+		roadNames = packer.roadNameTable();
+		Log.GRAPH.debug(() -> "Compressed " + roadCount + " Roads of " + townNames.length + " Towns into " + getPackedSize() + " bytes");
+	}
+	
+	/**
+	 * Method writes a variable-length integer
+	 * @param bytes destination
+	 * @param position position to write at
+	 * @param value value, treated as unsigned
+	 * @return the position after the value
+	 */
+	private static int writeVarint(byte[] bytes, int position, int value)
+	{
+		while ((value & ~0x7F) != 0)
+		{
+			bytes[position++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		bytes[position++] = (byte) value;
+		return position;
+	}
+	
+	/**
+	 * Inner class collecting the roads of one town and packing them, it also interns the road names
+	 */
+	private static class Packer
+	{
+		private long[] order = new long[16]; //destination in the high half, road in the low half
+		private int[] weights = new int[16];
+		private int[] names = new int[16];
+		private int size = 0;
+		private HashMap<String, Integer> nameIndexes = new HashMap<String, Integer>();
+		private byte[] scratch = new byte[16 * 15];
+		
+		/**
+		 * Collects a road
+		 * @param destination destination town id
+		 * @param weight road weight
+		 * @param name road name
+		 */
+		private void add(int destination, int weight, String name)
+		{
+			if (size == order.length)
+			{
+				order = Arrays.copyOf(order, size * 2);
+				weights = Arrays.copyOf(weights, size * 2);
+				names = Arrays.copyOf(names, size * 2);
+			}
+			
+			Integer index = nameIndexes.get(name);
+			if (index == null)
+			{
+				index = nameIndexes.size();
+				nameIndexes.put(name, index);
+			}
+			
+			order[size] = ((long) destination << 32) | size;
+			weights[size] = weight;
+			names[size] = index;
+			size++;
+		}
+		
+		/**
+		 * Packs the collected roads sorted by destination and starts a new town
+		 * @return the packed roads
+		 */
+		private byte[] pack()
+		{
+			Arrays.sort(order, 0, size);
+			if (scratch.length < size * 15)
+			{
+				scratch = new byte[size * 15];
+			}
+			
+			int position = 0;
+			int previous = 0;
+			for (int i = 0; i < size; i++)
+			{
+				int destination = (int) (order[i] >>> 32);
+				int road = (int) order[i];
+				position = writeVarint(scratch, position, destination - previous);
+				position = writeVarint(scratch, position, weights[road]);
+				position = writeVarint(scratch, position, names[road]);
+				previous = destination;
+			}
+			
+			size = 0;
+			return Arrays.copyOf(scratch, position);
+		}
+		
+		/**
+		 * Builds the road name table
+		 * @return the road names by index
+		 */
+		private String[] roadNameTable()
+		{
+			String[] table = new String[nameIndexes.size()];
+			for (HashMap.Entry<String, Integer> entry : nameIndexes.entrySet())
+			{
+				table[entry.getValue()] = entry.getKey();
+			}
+			return table;
+		}
+	}
+	
+	/**
+	 * Inner class implementing a cursor decoding the packed roads of a town
+	 */
+	private class PackedCursor implements Cursor
+	{
+		private byte[] packed = new byte[0];
+		private int position;
+		private int target;
+		private int weight;
+		private int name;
+		
+		public void reset(int town)
+		{
+			packed = roads[town];
+			position = 0;
+			target = 0;
+		}
+		
+		public boolean next()
+		{
+			if (position >= packed.length)
+			{
+				return false;
+			}
+			
+			target += readVarint();
+			weight = readVarint();
+			name = readVarint();
+			return true;
+		}
+		
+		public int getTarget()
+		{
+			return target;
+		}
+		
+		public int getWeight()
+		{
+			return weight;
+		}
+		
+		public String getRoadName()
+		{
+			return roadNames[name];
+		}
+		
+		/**
+		 * Method reads a variable-length integer
+		 * @return the value
+		 */
+		private int readVarint()
+		{
+			int value = 0;
+			int shift = 0;
+			byte b;
+			do
+			{
+				b = packed[position++];
+				value |= (b & 0x7F) << shift;
+				shift += 7;
+			}
+			while (b < 0);
+			return value;
+		}
+	}
+}
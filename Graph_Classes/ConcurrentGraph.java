@@ -0,0 +1,461 @@
+package Graph_Classes;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+import Interfaces.GraphInterface;
+
+/**
+ * Class implementing a thread-safe graph, wrapping a graph with a stamped lock over its towns and striped
+ * per-town locks over their roads.
+ * Adding or removing a town takes the write lock of the stamped lock, excluding everything else. Adding or
+ * removing a road shares the read lock and takes the write stripes of its two towns, so roads of unrelated
+ * towns are changed at once; the road ids, the edge count and the version are atomic or locked in the graph.
+ * Edge lookups take the read stripes of their towns, and routing, which may walk every road, the read stripes
+ * of all towns; many threads route at once, each with its own search. containsVertex reads without locking
+ * and keeps the result only if no town was added or removed meanwhile.
+ * The sets returned are copies, as the live views of a graph cannot be iterated while it changes.
+ */
+public class ConcurrentGraph implements GraphInterface<Town, Road>
+{
+	//number of town stripes, a power of two
+	private static final int STRIPES = 64;
+	
+	private final Graph graph;
+	private final StampedLock lock; //write for town changes, read for everything else
+	private final ReentrantReadWriteLock[] stripes; //write for road changes, read for road lookups
+	private final ThreadLocal<ShortestPathSearch> searches; //one search per routing thread
+	
+	/**
+	 * Default constructor wraps an empty graph
+	 */
+	public ConcurrentGraph()
+	{
+		this(new Graph());
+	}
+	
+	/**
+	 * Parameterized constructor wraps a graph, which must no longer be used directly
+	 * @param graph graph to wrap
+	 */
+	public ConcurrentGraph(Graph graph)
+	{
+		this.graph = graph;
+		lock = new StampedLock();
+		stripes = new ReentrantReadWriteLock[STRIPES];
+		for (int i = 0; i < STRIPES; i++)
+		{
+			stripes[i] = new ReentrantReadWriteLock();
+		}
+		searches = ThreadLocal.withInitial(graph::newSearch);
+	}
+	
+	/**
+	 * Returns an edge connecting source vertex to target vertex
+	 * @param sourceVertex source vertex of the edge
+	 * @param destinationVertex target vertex of the edge
+	 * @return the edge, or null if the vertices are not connected
+	 */
+	public Road getEdge(Town sourceVertex, Town destinationVertex)
+	{
+		long stamp = lock.readLock();
+		lockStripes(sourceVertex, destinationVertex, false);
+		try
+		{
+			return graph.getEdge(sourceVertex, destinationVertex);
+		}
+		finally
+		{
+			unlockStripes(sourceVertex, destinationVertex, false);
+			lock.unlockRead(stamp);
+		}
+	}
+	
+	/**
+	 * Creates a new edge in this graph, going from the source vertex to the target vertex
+	 * @param sourceVertex source vertex of the edge
+	 * @param destinationVertex target vertex of the edge
+	 * @param weight weight of the edge
+	 * @param description description for edge
+	 * @return The newly created edge if added to the graph, otherwise null
+	 * @throws Exception thrown if the vertices are not in this graph or the edge is not added appropriately
+	 */
+	public Road addEdge(Town sourceVertex, Town destinationVertex, int weight, String description) throws Exception
+	{
+		long stamp = lock.readLock();
+		lockStripes(sourceVertex, destinationVertex, true);
+		try
+		{
+			return graph.addEdge(sourceVertex, destinationVertex, weight, description);
+		}
+		finally
+		{
+			unlockStripes(sourceVertex, destinationVertex, true);
+			lock.unlockRead(stamp);
+		}
+	}
+	
+	/**
+	 * Adds the specified vertex to this graph if not already present
+	 * @param v vertex to be added to this graph
+	 * @return true if this graph did not already contain the specified vertex
+	 */
+	public boolean addVertex(Town v)
+	{
+		long stamp = lock.writeLock();
+		try
+		{
+			return graph.addVertex(v);
+		}
+		finally
+		{
+			lock.unlockWrite(stamp);
+		}
+	}
+	
+	/**
+	 * Returns true if and only if this graph contains an edge going from the source vertex to the target vertex
+	 * @param sourceVertex source vertex of the edge
+	 * @param destinationVertex target vertex of the edge
+	 * @return true if this graph contains the specified edge
+	 */
+	public boolean containsEdge(Town sourceVertex, Town destinationVertex)
+	{
+		long stamp = lock.readLock();
+		lockStripes(sourceVertex, destinationVertex, false);
+		try
+		{
+			return graph.containsEdge(sourceVertex, destinationVertex);
+		}
+		finally
+		{
+			unlockStripes(sourceVertex, destinationVertex, false);
+			lock.unlockRead(stamp);
+		}
+	}
+	
+	/**
+	 * Returns true if this graph contains the specified vertex
+	 * @param v vertex whose presence in this graph is to be tested
+	 * @return true if this graph contains the specified vertex
+	 */
+	public boolean containsVertex(Town v)
+	{
+		return read(() -> graph.containsVertex(v));
+	}
+	
+	/**
+	 * Returns a copy of the edges contained in this graph
+	 * @return a read-only set of the edges contained in this graph
+	 */
+	public Set<Road> edgeSet()
+	{
+		long stamp = lock.readLock();
+		lockAllStripes();
+		try
+		{
+			return Collections.unmodifiableSet(new HashSet<Road>(graph.edgeSet()));
+		}
+		finally
+		{
+			unlockAllStripes();
+			lock.unlockRead(stamp);
+		}
+	}
+	
+	/**
+	 * Returns a set of all edges touching the specified vertex
+	 * @param vertex the vertex for which a set of touching edges is to be returned
+	 * @return a set of all edges touching the specified vertex
+	 * @throws IllegalArgumentException if vertex is not found in the graph
+	 * @throws NullPointerException if vertex is null
+	 */
+	public Set<Road> edgesOf(Town vertex)
+	{
+		long stamp = lock.readLock();
+		lockStripes(vertex, vertex, false);
+		try
+		{
+			return graph.edgesOf(vertex);
+		}
+		finally
+		{
+			unlockStripes(vertex, vertex, false);
+			lock.unlockRead(stamp);
+		}
+	}
+	
+	/**
+	 * Removes an edge going from source vertex to target vertex, if such vertices and such edge exist in this graph
+	 * @param sourceVertex source vertex of the edge
+	 * @param destinationVertex target vertex of the edge
+	 * @param weight weight of the edge, checked if greater than -1
+	 * @param description description of the edge, checked if not null
+	 * @return The removed edge, or null if no edge removed
+	 */
+	public Road removeEdge(Town sourceVertex, Town destinationVertex, int weight, String description)
+	{
+		long stamp = lock.readLock();
+		lockStripes(sourceVertex, destinationVertex, true);
+		try
+		{
+			return graph.removeEdge(sourceVertex, destinationVertex, weight, description);
+		}
+		finally
+		{
+			unlockStripes(sourceVertex, destinationVertex, true);
+			lock.unlockRead(stamp);
+		}
+	}
+	
+	/**
+	 * Removes the specified vertex from this graph including all its touching edges if present
+	 * @param v vertex to be removed from this graph, if present
+	 * @return true if the graph contained the specified vertex
+	 */
+	public boolean removeVertex(Town v)
+	{
+		long stamp = lock.writeLock();
+		try
+		{
+			return graph.removeVertex(v);
+		}
+		finally
+		{
+			lock.unlockWrite(stamp);
+		}
+	}
+	
+	/**
+	 * Returns a copy of the vertices contained in this graph
+	 * @return a read-only set of the vertices contained in this graph
+	 */
+	public Set<Town> vertexSet()
+	{
+		long stamp = lock.readLock();
+		try
+		{
+			return Collections.unmodifiableSet(new HashSet<Town>(graph.vertexSet()));
+		}
+		finally
+		{
+			lock.unlockRead(stamp);
+		}
+	}
+	
+	/**
+	 * Finds the shortest path from the sourceVertex to the destinationVertex, with the search of the calling
+	 * thread, holding the read stripes of all towns. Unlike Graph.shortestPath, the path is not stored in the
+	 * source town, which all threads share.
+	 * @param sourceVertex starting vertex
+	 * @param destinationVertex ending vertex
+	 * @return An arraylist of Strings that describe the path from sourceVertex to destinationVertex
+	 * in the format: startVertex "via" Edge "to" endVertex weight "mi"
+	 */
+	public ArrayList<String> shortestPath(Town sourceVertex, Town destinationVertex)
+	{
+		if (sourceVertex == null || destinationVertex == null)
+		{
+			return new ArrayList<String>();
+		}
+		
+		long stamp = lock.readLock();
+		lockAllStripes();
+		try
+		{
+			return graph.findPath(searches.get(), sourceVertex.getName(), destinationVertex.getName());
+		}
+		finally
+		{
+			unlockAllStripes();
+			lock.unlockRead(stamp);
+		}
+	}
+	
+	/**
+	 * Stores the shortest paths from a vertex to every other vertex in the vertex, holding the write lock
+	 * as the paths are kept in the shared towns
+	 * @param sourceVertex the vertex to find shortest path from
+	 */
+	public void dijkstraShortestPath(Town sourceVertex)
+	{
+		long stamp = lock.writeLock();
+		try
+		{
+			graph.dijkstraShortestPath(sourceVertex);
+		}
+		finally
+		{
+			lock.unlockWrite(stamp);
+		}
+	}
+	
+	/**
+	 * Getter method for edge count, kept atomically by the graph
+	 * @return edge count
+	 */
+	public int getEdgeCount()
+	{
+		return graph.getEdgeCount();
+	}
+	
+	/**
+	 * Getter method for the version, which increases every time a batch of changes is made
+	 * @return the version
+	 */
+	public long getVersion()
+	{
+		return graph.getVersion();
+	}
+	
+	/**
+	 * Method takes the stripes of two towns, the lower stripe first so that no two threads wait on each other
+	 * @param town1 first town, may be null
+	 * @param town2 second town, may be null or the first town
+	 * @param write true for the write stripes, false for the read stripes
+	 */
+	private void lockStripes(Town town1, Town town2, boolean write)
+	{
+		int first = Math.min(stripe(town1), stripe(town2));
+		int second = Math.max(stripe(town1), stripe(town2));
+		lock(first, write);
+		if (second != first)
+		{
+			lock(second, write);
+		}
+	}
+	
+	/**
+	 * Method releases the stripes of two towns taken by lockStripes
+	 * @param town1 first town, may be null
+	 * @param town2 second town, may be null or the first town
+	 * @param write true for the write stripes, false for the read stripes
+	 */
+	private void unlockStripes(Town town1, Town town2, boolean write)
+	{
+		int first = Math.min(stripe(town1), stripe(town2));
+		int second = Math.max(stripe(town1), stripe(town2));
+		if (second != first)
+		{
+			unlock(second, write);
+		}
+		unlock(first, write);
+	}
+	
+	/**
+	 * Method takes the read stripes of all towns, in stripe order
+	 */
+	private void lockAllStripes()
+	{
+		for (int i = 0; i < STRIPES; i++)
+		{
+			lock(i, false);
+		}
+	}
+	
+	/**
+	 * Method releases the read stripes of all towns
+	 */
+	private void unlockAllStripes()
+	{
+		for (int i = STRIPES - 1; i >= 0; i--)
+		{
+			unlock(i, false);
+		}
+	}
+	
+	/**
+	 * Method takes a stripe
+	 * @param stripe stripe index
+	 * @param write true for the write lock, false for the read lock
+	 */
+	private void lock(int stripe, boolean write)
+	{
+		if (write)
+		{
+			stripes[stripe].writeLock().lock();
+		}
+		else
+		{
+			stripes[stripe].readLock().lock();
+		}
+	}
+	
+	/**
+	 * Method releases a stripe
+	 * @param stripe stripe index
+	 * @param write true for the write lock, false for the read lock
+	 */
+	private void unlock(int stripe, boolean write)
+	{
+		if (write)
+		{
+			stripes[stripe].writeLock().unlock();
+		}
+		else
+		{
+			stripes[stripe].readLock().unlock();
+		}
+	}
+	
+	/**
+	 * Method returns the stripe of a town, from its name as the town given may be a copy of the one in the graph
+	 * @param town town, may be null
+	 * @return the stripe index
+	 */
+	private static int stripe(Town town)
+	{
+		if (town == null)
+		{
+			return 0;
+		}
+		int h = town.hashCode();
+		return (h ^ (h >>> 16)) & (STRIPES - 1);
+	}
+	
+	/**
+	 * Method reads without locking, and again under the read lock if a town was added or removed meanwhile.
+	 * Only short reads of the towns may use it, roads change without invalidating the stamp. An optimistic read may see the graph half changed and
+	 * fail; its result or exception is only kept if the stamp is still valid afterwards.
+	 * @param <T> result type
+	 * @param reader the read
+	 * @return the result of the read
+	 */
+	private <T> T read(Supplier<T> reader)
+	{
+		long stamp = lock.tryOptimisticRead();
+		if (stamp != 0)
+		{
+			try
+			{
+				T result = reader.get();
+				if (lock.validate(stamp))
+				{
+					return result;
+				}
+			}
+			catch (RuntimeException | Error e)
+			{
+				if (lock.validate(stamp))
+				{
+					throw e;
+				}
+			}
+		}
+		
+		stamp = lock.readLock();
+		try
+		{
+			return reader.get();
+		}
+		finally
+		{
+			lock.unlockRead(stamp);
+		}
+	}
+}
@@ -0,0 +1,523 @@
+package Graph_Classes;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import Data_Structures.IntArrayList;
+import Data_Structures.VisitedSet;
+import Interfaces.AdjacencyInterface;
+import Logging.Log;
+
+/**
+ * Class implementing the delta-stepping single source shortest path search over the town ids of an adjacency,
+ * relaxing the roads of many towns at once on a fork-join pool.
+ * Towns wait in buckets of width delta by their tentative distance. The lowest bucket is emptied in phases:
+ * the light roads (weight at most delta) of its towns are relaxed in parallel, which may refill it, and once
+ * it stays empty the heavy roads of every town it held are relaxed in parallel. A distance and its predecessor
+ * are packed into one long, lowered by compare-and-set, so the relaxing threads need no locks. The buckets
+ * are a ring of lists reused from bucket to bucket and from search to search.
+ * The distances are those Dijkstra's search finds. Where two paths are equally short the smaller predecessor
+ * id wins, whatever order the threads relax in; only a tie reached over a road of weight 0 keeps the first
+ * predecessor found, as taking the other might close a loop of such roads.
+ * The adjacency must not change during a search, and a search is started by one thread at a time.
+ */
+public class DeltaSteppingSearch
+{
+	private static final int UNREACHED = Integer.MAX_VALUE;
+	private static final long UNREACHED_LABEL = label(UNREACHED, -1);
+	//frontiers up to this size are relaxed on the calling thread
+	private static final int SEQUENTIAL_LIMIT = 256;
+	//towns relaxed by one task
+	private static final int LEAF_SIZE = 128;
+	
+	private AdjacencyInterface adjacency;
+	private ForkJoinPool pool;
+	private int delta;
+	private AtomicLongArray labels; //distance in the high half, predecessor in the low half, by town id
+	private int[] queuedIn; //bucket a town is queued in, -1 if not queued
+	private int[] emptiedIn; //last bucket a town was taken from, -1 if none
+	private IntArrayList[] buckets; //towns by bucket, bucket b at b % length, stale entries skipped when taken
+	private int firstBucket; //lowest bucket that may hold towns
+	private int queuedCount; //entries in the buckets, stale ones included
+	private IntArrayList taken; //entries taken from the bucket being emptied
+	private IntArrayList frontier; //towns whose light roads are relaxed next
+	private IntArrayList emptied; //towns taken from the bucket being emptied
+	private IntArrayList[] leafLowered; //towns given a shorter distance, by leaf
+	private AdjacencyInterface.Cursor[] leafCursors; //cursor of each leaf
+	private VisitedSet reachedSet;
+	private IntArrayList reached; //towns given a distance by the last search
+	private AdjacencyInterface.Cursor legCursor; //finds the road of a path leg
+	
+	/**
+	 * Parameterized constructor, using the average road weight as delta
+	 * @param adjacency adjacency to search
+	 * @param pool pool relaxing the roads
+	 */
+	public DeltaSteppingSearch(AdjacencyInterface adjacency, ForkJoinPool pool)
+	{
+		this(adjacency, averageWeight(adjacency), pool);
+	}
+	
+	/**
+	 * Parameterized constructor
+	 * @param adjacency adjacency to search
+	 * @param delta bucket width, roads of at most this weight are light
+	 * @param pool pool relaxing the roads
+	 */
+	public DeltaSteppingSearch(AdjacencyInterface adjacency, int delta, ForkJoinPool pool)
+	{
+		if (delta < 1)
+		{
+			throw new IllegalArgumentException("Delta must be positive.");
+		}
+		
+		this.adjacency = adjacency;
+		this.delta = delta;
+		this.pool = pool;
+		buckets = new IntArrayList[0];
+		growBuckets(8);
+		taken = new IntArrayList();
+		frontier = new IntArrayList();
+		emptied = new IntArrayList();
+		leafLowered = new IntArrayList[0];
+		leafCursors = new AdjacencyInterface.Cursor[0];
+		reached = new IntArrayList();
+		legCursor = adjacency.getCursor();
+		allocate(Math.max(1, adjacency.getTownCount()));
+	}
+	
+	/**
+	 * Finds the shortest paths from a town to every town it can reach
+	 * @param source source town id
+	 */
+	public void search(int source)
+	{
+		reset();
+		
+		labels.set(source, label(0, -1));
+		reachedSet.add(source);
+		reached.add(source);
+		enqueue(source, 0);
+		
+		while (queuedCount > 0)
+		{
+			while (buckets[firstBucket % buckets.length].isEmpty())
+			{
+				firstBucket++;
+			}
+			int bucket = firstBucket;
+			emptied.clear();
+			
+			//light roads may lead back into the bucket, so it is emptied until it stays empty
+			int slot;
+			while (!buckets[slot = bucket % buckets.length].isEmpty())
+			{
+				//the emptied list takes the place of the bucket, which relaxing may refill
+				IntArrayList queued = buckets[slot];
+				buckets[slot] = taken;
+				taken = queued;
+				queuedCount -= taken.getSize();
+				
+				frontier.clear();
+				for (int i = 0; i < taken.getSize(); i++)
+				{
+					int town = taken.get(i);
+					if (queuedIn[town] == bucket)
+					{
+						queuedIn[town] = -1;
+						frontier.add(town);
+						if (emptiedIn[town] != bucket)
+						{
+							emptiedIn[town] = bucket;
+							emptied.add(town);
+						}
+					}
+				}
+				taken.clear();
+				relax(frontier, true);
+			}
+			
+			relax(emptied, false);
+		}
+		
+		Log.ROUTING.trace(() -> "Delta-stepping searched from " + adjacency.getTownName(source) + ", reached " + reached.getSize() + " Towns");
+	}
+	
+	/**
+	 * Determines if the last search found a path to a town
+	 * @param town town id
+	 * @return true if the town was reached
+	 */
+	public boolean isReached(int town)
+	{
+		return town >= 0 && town < labels.length() && distance(labels.get(town)) != UNREACHED;
+	}
+	
+	/**
+	 * Getter method for the distance of a town found by the last search
+	 * @param town town id
+	 * @return the distance, or -1 if the town was not reached
+	 */
+	public int getDistance(int town)
+	{
+		return isReached(town) ? distance(labels.get(town)) : -1;
+	}
+	
+	/**
+	 * Getter method for the previous town on the path to a town
+	 * @param town town id
+	 * @return the previous town id, or -1 for the source or a town not reached
+	 */
+	public int getPredecessor(int town)
+	{
+		return isReached(town) ? predecessor(labels.get(town)) : -1;
+	}
+	
+	/**
+	 * Getter method for the weight of the road reaching a town on its path
+	 * @param town town id, reached and not the source
+	 * @return the road weight
+	 */
+	public int getLegWeight(int town)
+	{
+		return getDistance(town) - getDistance(getPredecessor(town));
+	}
+	
+	/**
+	 * Getter method for the name of the road reaching a town on its path, found among the roads leaving
+	 * its predecessor
+	 * @param town town id, reached and not the source
+	 * @return the road name
+	 */
+	public String getLegName(int town)
+	{
+		int weight = getLegWeight(town);
+		legCursor.reset(getPredecessor(town));
+		while (legCursor.next())
+		{
+			if (legCursor.getTarget() == town && legCursor.getWeight() == weight)
+			{
+				return legCursor.getRoadName();
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Getter method for the bucket width
+	 * @return delta
+	 */
+	public int getDelta()
+	{
+		return delta;
+	}
+	
+	/**
+	 * Getter method for the adjacency searched
+	 * @return the adjacency
+	 */
+	public AdjacencyInterface getAdjacency()
+	{
+		return adjacency;
+	}
+	
+	/**
+	 * Method relaxes the light or the heavy roads leaving some towns, in parallel if there are many,
+	 * and queues every town given a shorter distance
+	 * @param towns town ids
+	 * @param light true for the light roads, false for the heavy ones
+	 */
+	private void relax(IntArrayList towns, boolean light)
+	{
+		if (towns.isEmpty())
+		{
+			return;
+		}
+		
+		int leaves;
+		if (towns.getSize() <= SEQUENTIAL_LIMIT || pool.getParallelism() == 1)
+		{
+			leaves = 1;
+			growLeaves(leaves);
+			relax(towns, 0, towns.getSize(), light, 0);
+		}
+		else
+		{
+			leaves = (towns.getSize() + LEAF_SIZE - 1) / LEAF_SIZE;
+			growLeaves(leaves);
+			pool.invoke(new RelaxTask(towns, light, 0, leaves));
+		}
+		
+		//queued on this thread, by the distance each town ended the phase with
+		for (int leaf = 0; leaf < leaves; leaf++)
+		{
+			IntArrayList list = leafLowered[leaf];
+			for (int i = 0; i < list.getSize(); i++)
+			{
+				int town = list.get(i);
+				if (reachedSet.add(town))
+				{
+					reached.add(town);
+				}
+				enqueue(town, distance(labels.get(town)));
+			}
+		}
+	}
+	
+	/**
+	 * Method relaxes the light or the heavy roads leaving a range of towns, on the calling thread, listing
+	 * the towns given a shorter distance, possibly repeated, in the list of a leaf
+	 * @param towns town ids
+	 * @param from first index of the range
+	 * @param to index after the range
+	 * @param light true for the light roads, false for the heavy ones
+	 * @param leaf leaf whose list and cursor are used
+	 */
+	private void relax(IntArrayList towns, int from, int to, boolean light, int leaf)
+	{
+		IntArrayList lowered = leafLowered[leaf];
+		AdjacencyInterface.Cursor cursor = leafCursors[leaf];
+		lowered.clear();
+		for (int i = from; i < to; i++)
+		{
+			int town = towns.get(i);
+			int distance = distance(labels.get(town));
+			cursor.reset(town);
+			while (cursor.next())
+			{
+				int weight = cursor.getWeight();
+				if ((weight <= delta) == light && lower(cursor.getTarget(), distance + weight, town, weight > 0))
+				{
+					lowered.add(cursor.getTarget());
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Method lowers the label of a town if a new path is shorter, or as short with a smaller predecessor.
+	 * Comparing the whole label makes the predecessor of a tie the same whichever thread relaxes last.
+	 * @param town town id
+	 * @param distance distance of the new path
+	 * @param predecessor previous town on the new path
+	 * @param tieAllowed false if the last road has weight 0, when an equal distance keeps the current predecessor
+	 * @return true if the distance was lowered, false if it was not or only the predecessor changed
+	 */
+	private boolean lower(int town, int distance, int predecessor, boolean tieAllowed)
+	{
+		long newLabel = label(distance, predecessor);
+		while (true)
+		{
+			long current = labels.get(town);
+			int currentDistance = distance(current);
+			if (newLabel >= current || (distance == currentDistance && !tieAllowed))
+			{
+				return false;
+			}
+			else if (labels.compareAndSet(town, current, newLabel))
+			{
+				return distance < currentDistance;
+			}
+		}
+	}
+	
+	/**
+	 * Method queues a town in the bucket of its distance, unless it is already queued there
+	 * @param town town id
+	 * @param distance distance of the town
+	 */
+	private void enqueue(int town, int distance)
+	{
+		int bucket = distance / delta;
+		if (queuedIn[town] != bucket)
+		{
+			//no relaxed distance is below the bucket being emptied, so the ring only grows upwards
+			if (bucket - firstBucket >= buckets.length)
+			{
+				growBuckets(bucket - firstBucket + 1);
+			}
+			queuedIn[town] = bucket;
+			buckets[bucket % buckets.length].add(town);
+			queuedCount++;
+		}
+	}
+	
+	/**
+	 * Method grows the ring of buckets to hold at least a number of buckets from the first one, keeping
+	 * the towns queued
+	 * @param count number of buckets
+	 */
+	private void growBuckets(int count)
+	{
+		IntArrayList[] newBuckets = new IntArrayList[Math.max(count, buckets.length * 2)];
+		for (int bucket = firstBucket; bucket < firstBucket + buckets.length; bucket++)
+		{
+			newBuckets[bucket % newBuckets.length] = buckets[bucket % buckets.length];
+		}
+		for (int slot = 0; slot < newBuckets.length; slot++)
+		{
+			if (newBuckets[slot] == null)
+			{
+				newBuckets[slot] = new IntArrayList();
+			}
+		}
+		buckets = newBuckets;
+	}
+	
+	/**
+	 * Method makes sure there is a list and a cursor for a number of leaves
+	 * @param count number of leaves
+	 */
+	private void growLeaves(int count)
+	{
+		if (count <= leafLowered.length)
+		{
+			return;
+		}
+		
+		int oldCount = leafLowered.length;
+		leafLowered = Arrays.copyOf(leafLowered, Math.max(count, oldCount * 2));
+		leafCursors = Arrays.copyOf(leafCursors, leafLowered.length);
+		for (int leaf = oldCount; leaf < leafLowered.length; leaf++)
+		{
+			leafLowered[leaf] = new IntArrayList();
+			leafCursors[leaf] = adjacency.getCursor();
+		}
+	}
+	
+	/**
+	 * Method clears the towns of the last search and grows the arrays if the adjacency grew
+	 */
+	private void reset()
+	{
+		for (IntArrayList bucket : buckets)
+		{
+			bucket.clear();
+		}
+		firstBucket = 0;
+		queuedCount = 0;
+		int capacity = adjacency.getTownCount();
+		if (capacity > labels.length())
+		{
+			allocate(Math.max(capacity, labels.length() * 2));
+			reached.clear();
+			return;
+		}
+		
+		for (int i = 0; i < reached.getSize(); i++)
+		{
+			int town = reached.get(i);
+			labels.set(town, UNREACHED_LABEL);
+			queuedIn[town] = -1;
+			emptiedIn[town] = -1;
+		}
+		reached.clear();
+		reachedSet.clear();
+	}
+	
+	/**
+	 * Method creates the arrays for a number of towns, every town unreached
+	 * @param capacity number of town ids
+	 */
+	private void allocate(int capacity)
+	{
+		labels = new AtomicLongArray(capacity);
+		for (int town = 0; town < capacity; town++)
+		{
+			labels.set(town, UNREACHED_LABEL);
+		}
+		queuedIn = new int[capacity];
+		Arrays.fill(queuedIn, -1);
+		emptiedIn = new int[capacity];
+		Arrays.fill(emptiedIn, -1);
+		reachedSet = new VisitedSet(capacity);
+	}
+	
+	/**
+	 * Method finds the average weight of the roads of an adjacency, a fair bucket width for most road networks
+	 * @param adjacency adjacency
+	 * @return the average weight, at least 1
+	 */
+	private static int averageWeight(AdjacencyInterface adjacency)
+	{
+		long total = 0;
+		long roads = 0;
+		AdjacencyInterface.Cursor cursor = adjacency.getCursor();
+		for (int town = 0; town < adjacency.getTownCount(); town++)
+		{
+			cursor.reset(town);
+			while (cursor.next())
+			{
+				total += cursor.getWeight();
+				roads++;
+			}
+		}
+		return (int) Math.max(1, roads == 0 ? 1 : total / roads);
+	}
+	
+	/**
+	 * Method packs a distance and a predecessor
+	 * @param distance distance
+	 * @param predecessor previous town id, -1 for none
+	 * @return the label
+	 */
+	private static long label(int distance, int predecessor)
+	{
+		return ((long) distance << 32) | (predecessor & 0xFFFFFFFFL);
+	}
+	
+	/**
+	 * Method unpacks the distance of a label
+	 * @param label label
+	 * @return the distance
+	 */
+	private static int distance(long label)
+	{
+		return (int) (label >>> 32);
+	}
+	
+	/**
+	 * Method unpacks the predecessor of a label
+	 * @param label label
+	 * @return the previous town id
+	 */
+	private static int predecessor(long label)
+	{
+		return (int) label;
+	}
+	
+	/**
+	 * Inner class for the task relaxing the towns of a range of leaves, splitting large ranges in halves
+	 */
+	private class RelaxTask extends RecursiveAction
+	{
+		private static final long serialVersionUID = 1L;
+		
+		private final IntArrayList towns;
+		private final boolean light;
+		private final int from;
+		private final int to;
+		
+		private RelaxTask(IntArrayList towns, boolean light, int from, int to)
+		{
+			this.towns = towns;
+			this.light = light;
+			this.from = from;
+			this.to = to;
+		}
+		
+		protected void compute()
+		{
+			if (to - from > 1)
+			{
+				int middle = (from + to) >>> 1;
+				invokeAll(new RelaxTask(towns, light, from, middle), new RelaxTask(towns, light, middle, to));
+				return;
+			}
+			
+			relax(towns, from * LEAF_SIZE, Math.min(towns.getSize(), (from + 1) * LEAF_SIZE), light, from);
+		}
+	}
+}
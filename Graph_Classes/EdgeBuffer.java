@@ -0,0 +1,162 @@
+package Graph_Classes;
+
+import java.util.Arrays;
+
+/**
+ * Class implementing a growable buffer of road records (road name, miles, source town, destination town).
+ * Loaders fill one buffer per thread without touching the graph, and the buffers are merged into
+ * the graph afterwards.
+ */
+public class EdgeBuffer implements RoadFileParser.RoadHandler
+{
+	private String[] roadNames;
+	private int[] miles;
+	private String[] sources;
+	private String[] destinations;
+	private int size;
+	
+	/**
+	 * Default constructor
+	 */
+	public EdgeBuffer()
+	{
+		this(16);
+	}
+	
+	/**
+	 * Parameterized constructor
+	 * @param initialCapacity number of records the buffer holds before growing
+	 */
+	public EdgeBuffer(int initialCapacity)
+	{
+		if (initialCapacity < 1)
+		{
+			initialCapacity = 1;
+		}
+		roadNames = new String[initialCapacity];
+		miles = new int[initialCapacity];
+		sources = new String[initialCapacity];
+		destinations = new String[initialCapacity];
+		size = 0;
+	}
+	
+	/**
+	 * Appends a road record
+	 * @param roadName name of the road
+	 * @param distance distance of the road
+	 * @param sourceTown name of the first town
+	 * @param destinationTown name of the second town
+	 */
+	public void road(String roadName, int distance, String sourceTown, String destinationTown)
+	{
+		if (size == roadNames.length)
+		{
+			int capacity = size * 2;
+			roadNames = Arrays.copyOf(roadNames, capacity);
+			miles = Arrays.copyOf(miles, capacity);
+			sources = Arrays.copyOf(sources, capacity);
+			destinations = Arrays.copyOf(destinations, capacity);
+		}
+		roadNames[size] = roadName;
+		miles[size] = distance;
+		sources[size] = sourceTown;
+		destinations[size] = destinationTown;
+		size++;
+	}
+	
+	/**
+	 * Appends every record of another buffer
+	 * @param roads buffer to append
+	 */
+	public void addAll(EdgeBuffer roads)
+	{
+		int newSize = size + roads.size;
+		if (newSize > roadNames.length)
+		{
+			int capacity = Math.max(newSize, size * 2);
+			roadNames = Arrays.copyOf(roadNames, capacity);
+			miles = Arrays.copyOf(miles, capacity);
+			sources = Arrays.copyOf(sources, capacity);
+			destinations = Arrays.copyOf(destinations, capacity);
+		}
+		System.arraycopy(roads.roadNames, 0, roadNames, size, roads.size);
+		System.arraycopy(roads.miles, 0, miles, size, roads.size);
+		System.arraycopy(roads.sources, 0, sources, size, roads.size);
+		System.arraycopy(roads.destinations, 0, destinations, size, roads.size);
+		size = newSize;
+	}
+	
+	/**
+	 * Getter method for the number of records
+	 * @return the number of records
+	 */
+	public int size()
+	{
+		return size;
+	}
+	
+	/**
+	 * Getter method for the road name of a record
+	 * @param index record index
+	 * @return the road name
+	 */
+	public String getRoadName(int index)
+	{
+		return roadNames[checkIndex(index)];
+	}
+	
+	/**
+	 * Getter method for the distance of a record
+	 * @param index record index
+	 * @return the distance in miles
+	 */
+	public int getMiles(int index)
+	{
+		return miles[checkIndex(index)];
+	}
+	
+	/**
+	 * Getter method for the source town name of a record
+	 * @param index record index
+	 * @return the source town name
+	 */
+	public String getSource(int index)
+	{
+		return sources[checkIndex(index)];
+	}
+	
+	/**
+	 * Getter method for the destination town name of a record
+	 * @param index record index
+	 * @return the destination town name
+	 */
+	public String getDestination(int index)
+	{
+		return destinations[checkIndex(index)];
+	}
+	
+	/**
+	 * Removes all records, keeping the capacity
+	 */
+	public void clear()
+	{
+		Arrays.fill(roadNames, 0, size, null);
+		Arrays.fill(sources, 0, size, null);
+		Arrays.fill(destinations, 0, size, null);
+		size = 0;
+	}
+	
+	/**
+	 * Method checks a record index
+	 * @param index record index
+	 * @return the index
+	 */
+	private int checkIndex(int index)
+	{
+		if (index < 0 || index >= size)
+		{
+			throw new IndexOutOfBoundsException("Illegal record index " + index + ".");
+		}
+		return index;
+	}
+}
@@ -3,19 +3,30 @@
  */
 package Graph_Classes;
 
+import java.util.AbstractSet;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.PriorityQueue;
+import java.util.List;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-import Data_Structures.LinkedDictionary;
-import Data_Structures.LinkedListWithIterator;
-import Data_Structures.LinkedStack;
-import Interfaces.DictionaryInterface;
+import Data_Structures.HashedDictionary;
+import Data_Structures.ArrayListWithIterator;
+import Data_Structures.ArrayStack;
 import Interfaces.GraphInterface;
+import Interfaces.GraphListener;
+import Logging.Log;
 
 /**
  * Class implementing a graph
@@ -23,17 +34,49 @@ import Interfaces.GraphInterface;
 public class Graph implements GraphInterface<Town, Road>
 {
 	//Dictionary (or list) for the vertices, container
-	private DictionaryInterface<String, Town> towns; //<name, town>
-	private int edgeCount;
+	private HashedDictionary<String, Town> towns; //<name, town>
+	private Town[] townsById; //vertices by id, null where removed
+	private int nextTownId;
+	private final AtomicInteger edgeCount; //atomic, as a ConcurrentGraph changes roads of different towns at once
+	private final AtomicInteger nextRoadId;
+	private volatile long version; //incremented once per delivered batch of changes
+	private List<GraphListener> listeners;
+	private ArrayList<GraphEvent> pendingEvents; //changes of the open batch
+	private boolean pendingChange; //the open batch changed this graph
+	private int batchDepth;
+	private ShortestPathSearch search; //reused by the routing methods
+	private Set<Town> townView; //read-only view of the vertices
+	private Set<Road> roadView; //read-only view of the edges
 
 	/**
 	 * Default constructor creates a container for the vertices (and their adjacency lists [edges])
 	 */
 	public Graph()
 	{
-		System.out.println("Creating Graph");
-		towns = new LinkedDictionary<String, Town>();
-		edgeCount = 0;
+		Log.GRAPH.debug(() -> "Creating Graph");
+		towns = new HashedDictionary<String, Town>();
+		townsById = new Town[16];
+		nextTownId = 0;
+		edgeCount = new AtomicInteger();
+		nextRoadId = new AtomicInteger();
+		listeners = new CopyOnWriteArrayList<GraphListener>();
+		pendingEvents = new ArrayList<GraphEvent>();
+	}
+	
+	/**
+	 * Parameterized constructor creates a container sized for a number of vertices
+	 * @param expectedTowns number of vertices expected
+	 */
+	public Graph(int expectedTowns)
+	{
+		Log.GRAPH.debug(() -> "Creating Graph for " + expectedTowns + " Towns");
+		towns = new HashedDictionary<String, Town>(expectedTowns);
+		townsById = new Town[Math.max(16, expectedTowns)];
+		nextTownId = 0;
+		edgeCount = new AtomicInteger();
+		nextRoadId = new AtomicInteger();
+		listeners = new CopyOnWriteArrayList<GraphListener>();
+		pendingEvents = new ArrayList<GraphEvent>();
 	}
 	
     /**
@@ -57,9 +100,7 @@ public class Graph implements GraphInterface<Town, Road>
 		//valid vertices
 		else if (towns.contains(sourceVertex.getName()) && towns.contains(destinationVertex.getName()))
 		{
-			System.out.println("Getting edge between " + sourceVertex + " and " + destinationVertex);
-			
-			Road road = null;
+			Log.GRAPH.trace(() -> "Getting edge between " + sourceVertex + " and " + destinationVertex);
 			
 			//ensures no loops
 			if (!sourceVertex.equals(destinationVertex))
@@ -70,12 +111,12 @@ public class Graph implements GraphInterface<Town, Road>
 				//checks adjacency list for this edge to exist
 				while (roads.hasNext())
 				{
-					road = roads.next();
+					Road road = roads.next();
 					
 					//found road
 					if ((sourceVertex.equals(road.getSource()) && destinationVertex.equals(road.getDestination())) || (sourceVertex.equals(road.getDestination()) && destinationVertex.equals(road.getSource())))
 					{
-						System.out.println("Found Road " + road.getName() + " between " + sourceVertex + " and " + destinationVertex);
+						Log.GRAPH.trace(() -> "Found Road " + road.getName() + " between " + sourceVertex + " and " + destinationVertex);
 						return road;
 					}
 				}
@@ -106,6 +147,25 @@ public class Graph implements GraphInterface<Town, Road>
      * @throws NullPointerException if any of the specified vertices is null.
      */
 	public Road addEdge(Town sourceVertex, Town destinationVertex, int weight, String description) throws Exception
+	{
+		return addEdge(sourceVertex, destinationVertex, weight, description, false);
+	}
+	
+	/**
+	 * Creates a new edge in this graph, going from the source vertex to the target vertex, that is
+	 * travelled in both directions unless it is one-way. A pair of vertices holds at most one edge.
+	 * @param sourceVertex source vertex of the edge.
+	 * @param destinationVertex target vertex of the edge.
+	 * @param weight weight of the edge
+	 * @param description description for edge
+	 * @param oneWay true if the edge only goes from the source vertex to the target vertex
+	 * @return The newly created edge if added to the graph, otherwise null.
+	 * @throws Exception thrown if the edge is not added appropriately
+	 * @throws IllegalArgumentException if source or target vertices are not
+	 * found in the graph.
+	 * @throws NullPointerException if any of the specified vertices is null.
+	 */
+	public Road addEdge(Town sourceVertex, Town destinationVertex, int weight, String description, boolean oneWay) throws Exception
 	{
 		Road road = null;
 		
@@ -117,15 +177,17 @@ public class Graph implements GraphInterface<Town, Road>
 		//valid vertices
 		else if (towns.contains(sourceVertex.getName()) && towns.contains(destinationVertex.getName()))
 		{
-			System.out.println("Attempting to add Road " + description + " between " + sourceVertex + " and " + destinationVertex);
+			Log.GRAPH.trace(() -> "Attempting to add Road " + description + " between " + sourceVertex + " and " + destinationVertex);
 			
-			road = new Road(sourceVertex, destinationVertex, weight, description);
+			road = new Road(sourceVertex, destinationVertex, weight, description, oneWay);
 			
 			//successful edge addition, a vertex operation
 			if (sourceVertex.connect(road))
 			{
-				System.out.println("Road connected.");
-				edgeCount++;
+				Log.GRAPH.trace(() -> "Road connected.");
+				road.setId(nextRoadId.getAndIncrement());
+				edgeCount.incrementAndGet();
+				changed(GraphEvent.Type.ROAD_ADDED, null, road);
 			}
 			else
 			{
@@ -160,12 +222,15 @@ public class Graph implements GraphInterface<Town, Road>
 		}
 		else if (!towns.contains(v.getName()))
 		{
-			System.out.println("Adding Town " + v.getName());
-			return towns.add(v.getName(), v) == null;
+			Log.GRAPH.trace(() -> "Adding Town " + v.getName());
+			assignId(v);
+			towns.add(v.getName(), v);
+			changed(GraphEvent.Type.TOWN_ADDED, v, null);
+			return true;
 		}
 		else
 		{
-			System.out.println("Did not (re)add Town " + v.getName());
+			Log.GRAPH.trace(() -> "Did not (re)add Town " + v.getName());
 			return false;
 		}
 	}
@@ -210,53 +275,15 @@ public class Graph implements GraphInterface<Town, Road>
      * the graph, so changes to the graph are reflected in the set. If the graph
      * is modified while an iteration over the set is in progress, the results
      * of the iteration are undefined.
-     * @return a set of the edges contained in this graph.
+     * @return a read-only set view of the edges contained in this graph.
      */
 	public Set<Road> edgeSet() 
 	{
-		System.out.println("Creating edge Set");
-		
-		//Set for roads
-		Set<Road> setOfRoads = new HashSet<Road>();
-		
-		//Town Iterator
-		Iterator<Town> townIterator = towns.getValueIterator();
-		
-		//currentTown
-		Town currentTown = null;
-		
-		//Loop through towns, adding the roads
-		while (townIterator.hasNext())
+		if (roadView == null)
 		{
-			currentTown = townIterator.next();
-			
-			System.out.println(currentTown.getName());
-			
-			//Road Iterator
-			Iterator<Road> roadIterator = currentTown.getRoadIterator();
-			
-			Road currentRoad = null;
-			
-			//adds the roads to the set
-			while (roadIterator.hasNext())
-			{
-				currentRoad = roadIterator.next();
-				
-				System.out.println("Found Road " + currentRoad);
-				
-				if (!setOfRoads.contains(currentRoad))
-				{
-					setOfRoads.add(currentRoad); //if the set does not contain A to B, add it
-					System.out.println("Added Road " + currentRoad.getName());
-				}
-				else
-				{
-					System.out.println("Did not re(add) Road " + currentRoad.getName());
-				}
-			}
+			roadView = new RoadSetView();
 		}
-		
-		return setOfRoads;
+		return roadView;
 	}
 
     /**
@@ -264,27 +291,35 @@ public class Graph implements GraphInterface<Town, Road>
      * by the graph, so changes to the graph are reflected in the set. If the
      * graph is modified while an iteration over the set is in progress, the
      * results of the iteration are undefined.
-     * @return a set view of the vertices contained in this graph.
+     * @return a read-only set view of the vertices contained in this graph.
      */
 	public Set<Town> vertexSet() 
 	{
-		System.out.println("Creating vertex Set");
-		
-		//Set for roads
-		Set<Town> setOfTowns = new HashSet<Town>();
-		
-		//Town iterator
-		Iterator<Town> townIterator = towns.getValueIterator();
-		
-		//adds Towns
-		while (townIterator.hasNext())
+		if (townView == null)
 		{
-			Town currentTown = townIterator.next();
-			setOfTowns.add(currentTown);
-			System.out.println("Added Town " + currentTown.getName());
+			townView = new TownSetView();
 		}
-		
-		return setOfTowns;
+		return townView;
+	}
+	
+	/**
+	 * Creates a stream over the vertices of this graph, without copying them
+	 * The stream splits the vertices by id range, so it can run in parallel
+	 * @return a stream of the towns
+	 */
+	public Stream<Town> towns()
+	{
+		return StreamSupport.stream(vertexSet().spliterator(), false);
+	}
+	
+	/**
+	 * Creates a stream over the edges of this graph, without copying them
+	 * Each road is visited once, from the adjacency list of its source town
+	 * @return a stream of the roads
+	 */
+	public Stream<Road> roads()
+	{
+		return StreamSupport.stream(edgeSet().spliterator(), false);
 	}
 	
     /**
@@ -309,7 +344,7 @@ public class Graph implements GraphInterface<Town, Road>
 		}
 		else
 		{
-			System.out.println("Finding Roads of Town " + vertex.getName());
+			Log.GRAPH.trace(() -> "Finding Roads of Town " + vertex.getName());
 			
 			//Set for roads
 			Set<Road> setOfRoads = new HashSet<Road>();
@@ -322,7 +357,7 @@ public class Graph implements GraphInterface<Town, Road>
 			{
 				Road currentRoad = roadIterator.next();
 				setOfRoads.add(currentRoad);
-				System.out.println("Added Road " + currentRoad.getName());
+				Log.GRAPH.trace(() -> "Added Road " + currentRoad.getName());
 			}
 			
 			return setOfRoads;
@@ -359,43 +394,17 @@ public class Graph implements GraphInterface<Town, Road>
 		//the road exists
 		if (targetRoad != null)
 		{
-			System.out.println("Removing Road " + targetRoad.getName());
+			Log.GRAPH.trace(() -> "Removing Road " + targetRoad.getName());
 			
-			//current Road (of adjacency list of the source vertex)
-			Road currentRoad = null;
-			
-			//adjacency list of the source vertex and destination vertex
-			LinkedListWithIterator<Road> sourceList = sourceVertex.getList();
-			LinkedListWithIterator<Road> destinationList = destinationVertex.getList();
-			
-			//finds the target road amongst the roads of the source vector
-			for (int i = 0; i < sourceList.getLength(); i++)
-			{
-				currentRoad = sourceList.getEntry(i);
-				
-				if (currentRoad.equals(targetRoad))
-				{
-					sourceList.remove(i);
-					System.out.println("Removed Road " + targetRoad.getName() + " from source Town " + sourceVertex.getName());
-					break;
-				}
-			}
-			
-			//finds the target road amongst the roads of the destination vector
-			for (int i = 0; i < destinationList.getLength(); i++)
-			{
-				currentRoad = destinationList.getEntry(i);
-				
-				if (currentRoad.equals(targetRoad))
-				{
-					destinationList.remove(i);
-					System.out.println("Removed Road " + targetRoad.getName() + " from destination Town " + destinationVertex.getName());
-					return currentRoad;
-				}
-			}
+			//removes the road from the adjacency lists of both towns
+			targetRoad.getSource().detach(targetRoad);
+			edgeCount.decrementAndGet();
+			changed(GraphEvent.Type.ROAD_REMOVED, null, targetRoad);
+			Log.GRAPH.trace(() -> "Removed Road " + targetRoad.getName() + " between " + sourceVertex.getName() + " and " + destinationVertex.getName());
+			return targetRoad;
 		}
 		
-		System.out.println("Unsuccessfully removed Road " + targetRoad.getName());
+		Log.GRAPH.trace(() -> "Unsuccessfully removed Road between " + sourceVertex.getName() + " and " + destinationVertex.getName());
 		return null;
 	}
 
@@ -417,13 +426,397 @@ public class Graph implements GraphInterface<Town, Road>
 		return towns.getValue(v.getName());
 	}
 	
+	/**
+	 * Adds a vertex known not to be in this graph, without the checks of addVertex.
+	 * Used when restoring a graph that was valid when it was saved, or a vertex removed by a rolled back
+	 * batch, which gets its id back.
+	 * @param v vertex to add
+	 */
+	void restoreVertex(Town v)
+	{
+		int id = v.getId();
+		if (id >= 0 && id < nextTownId && townsById[id] == null)
+		{
+			townsById[id] = v;
+		}
+		else
+		{
+			assignId(v);
+		}
+		towns.add(v.getName(), v);
+		changed(GraphEvent.Type.TOWN_ADDED, v, null);
+	}
+	
+	/**
+	 * Adds an edge whose vertices are in this graph and are not yet connected, without the checks of addEdge.
+	 * Used when restoring a graph that was valid when it was saved, or an edge removed by a rolled back
+	 * batch, which keeps its id.
+	 * @param road edge to add
+	 */
+	void restoreEdge(Road road)
+	{
+		road.getSource().attach(road);
+		if (road.getId() < 0)
+		{
+			road.setId(nextRoadId.getAndIncrement());
+		}
+		edgeCount.incrementAndGet();
+		changed(GraphEvent.Type.ROAD_ADDED, null, road);
+	}
+	
+	/**
+	 * Adds a batch of roads, adding the towns they name that are not yet in this graph.
+	 * Unlike addEdge, the roads are not validated one at a time: the towns are resolved by name once,
+	 * the records are grouped by the lower id of their two towns with a counting sort, and duplicates are
+	 * found in one pass per group by marking the other towns. Loops, roads already in this graph and repeats
+	 * within the batch, in either direction, are skipped (the first occurrence wins), as addEdge would reject them.
+	 * The adjacency lists and the town index are then built in one pass, in batch order.
+	 * @param roads batch of road records
+	 * @return the number of roads added
+	 */
+	public int addEdges(EdgeBuffer roads)
+	{
+		int recordCount = roads.size();
+		int[] sources = new int[recordCount];
+		int[] destinations = new int[recordCount];
+		
+		//resolves the towns, new towns get ids now and join the index at the end
+		HashMap<String, Town> resolved = new HashMap<String, Town>();
+		ArrayList<Town> newTowns = new ArrayList<Town>();
+		for (int i = 0; i < recordCount; i++)
+		{
+			sources[i] = resolveTown(roads.getSource(i), resolved, newTowns).getId();
+			destinations[i] = resolveTown(roads.getDestination(i), resolved, newTowns).getId();
+		}
+		
+		//groups the records by the lower id of their towns, keeping batch order within a group
+		int[] groupStart = new int[nextTownId + 1];
+		for (int i = 0; i < recordCount; i++)
+		{
+			groupStart[Math.min(sources[i], destinations[i]) + 1]++;
+		}
+		for (int id = 0; id < nextTownId; id++)
+		{
+			groupStart[id + 1] += groupStart[id];
+		}
+		int[] grouped = new int[recordCount];
+		int[] fill = Arrays.copyOf(groupStart, nextTownId);
+		for (int i = 0; i < recordCount; i++)
+		{
+			grouped[fill[Math.min(sources[i], destinations[i])]++] = i;
+		}
+		
+		//marks the towns each town of a group is already or gets connected to, seen[other] == town + 1
+		int[] seen = new int[nextTownId];
+		boolean[] accepted = new boolean[recordCount];
+		for (int id = 0; id < nextTownId; id++)
+		{
+			if (groupStart[id] == groupStart[id + 1])
+			{
+				continue;
+			}
+			
+			Town town = townsById[id];
+			Iterator<Road> existing = town.getRoadIterator();
+			while (existing.hasNext())
+			{
+				seen[existing.next().getOpposite(town).getId()] = id + 1;
+			}
+			
+			for (int g = groupStart[id]; g < groupStart[id + 1]; g++)
+			{
+				int record = grouped[g];
+				int other = Math.max(sources[record], destinations[record]);
+				if (other != id && seen[other] != id + 1)
+				{
+					seen[other] = id + 1;
+					accepted[record] = true;
+				}
+			}
+		}
+		
+		//index and adjacency, once, the changes are delivered as one batch
+		beginBatch();
+		towns.ensureCapacity(towns.getSize() + newTowns.size());
+		for (Town town : newTowns)
+		{
+			towns.add(town.getName(), town);
+			changed(GraphEvent.Type.TOWN_ADDED, town, null);
+		}
+		
+		int added = 0;
+		for (int i = 0; i < recordCount; i++)
+		{
+			if (accepted[i])
+			{
+				Road road = new Road(townsById[sources[i]], townsById[destinations[i]], roads.getMiles(i), roads.getRoadName(i));
+				townsById[sources[i]].attach(road);
+				road.setId(nextRoadId.getAndIncrement());
+				changed(GraphEvent.Type.ROAD_ADDED, null, road);
+				added++;
+			}
+		}
+		edgeCount.addAndGet(added);
+		endBatch();
+		
+		int addedRoads = added;
+		Log.GRAPH.debug(() -> "Added " + addedRoads + " of " + recordCount + " Roads and " + newTowns.size() + " Towns in bulk");
+		if (addedRoads < recordCount)
+		{
+			Log.GRAPH.info(() -> "Skipped " + (recordCount - addedRoads) + " duplicate or looping Roads in bulk");
+		}
+		return added;
+	}
+	
+	/**
+	 * Method finds a town of this graph by name for addEdges, or creates it with an id
+	 * @param name town name
+	 * @param resolved towns already resolved in this batch
+	 * @param newTowns towns created in this batch, not yet in the index
+	 * @return the town
+	 */
+	private Town resolveTown(String name, HashMap<String, Town> resolved, ArrayList<Town> newTowns)
+	{
+		Town town = resolved.get(name);
+		
+		if (town == null)
+		{
+			town = towns.getValue(name);
+			if (town == null)
+			{
+				town = new Town(name);
+				assignId(town);
+				newTowns.add(town);
+			}
+			resolved.put(name, town);
+		}
+		
+		return town;
+	}
+	
+	/**
+	 * Method gives a vertex the next id
+	 * @param v vertex added to this graph
+	 */
+	private void assignId(Town v)
+	{
+		if (nextTownId == townsById.length)
+		{
+			townsById = Arrays.copyOf(townsById, townsById.length * 2);
+		}
+		v.setId(nextTownId);
+		townsById[nextTownId++] = v;
+	}
+	
+	/**
+	 * Retrieves a vertex by its id
+	 * @param id vertex id
+	 * @return the vertex, or null if no vertex of this graph has the id
+	 */
+	public Town getTownById(int id)
+	{
+		if (id < 0 || id >= nextTownId)
+		{
+			return null;
+		}
+		return townsById[id];
+	}
+	
+	/**
+	 * Getter method for the number of ids handed out, every vertex id is below it
+	 * @return the id capacity
+	 */
+	public int getTownIdBound()
+	{
+		return nextTownId;
+	}
+	
+	/**
+	 * Getter method for the number of road ids handed out, every road id is below it
+	 * @return the road id capacity
+	 */
+	public int getRoadIdBound()
+	{
+		return nextRoadId.get();
+	}
+	
+	/**
+	 * Getter method for the version, which increases every time a batch of changes is made
+	 * @return the version
+	 */
+	public long getVersion()
+	{
+		return version;
+	}
+	
+	/**
+	 * Registers a listener to receive the changes made to this graph
+	 * @param listener listener to add
+	 */
+	public void addGraphListener(GraphListener listener)
+	{
+		if (listener == null)
+		{
+			throw new NullPointerException();
+		}
+		listeners.add(listener);
+	}
+	
+	/**
+	 * Unregisters a listener
+	 * @param listener listener to remove
+	 * @return true if the listener was registered
+	 */
+	public boolean removeGraphListener(GraphListener listener)
+	{
+		return listeners.remove(listener);
+	}
+	
+	/**
+	 * Getter method for the registered listeners
+	 * @return the listeners
+	 */
+	public List<GraphListener> getGraphListeners()
+	{
+		return new ArrayList<GraphListener>(listeners);
+	}
+	
+	/**
+	 * Takes over the listeners of a graph this graph replaces, continuing its versions,
+	 * and tells them every town and road may have changed
+	 * @param previous replaced graph
+	 */
+	void replace(Graph previous)
+	{
+		version = Math.max(version, previous.version);
+		listeners.addAll(previous.listeners);
+		previous.listeners.clear();
+		changed(GraphEvent.Type.GRAPH_REPLACED, null, null);
+	}
+	
+	/**
+	 * Starts a batch: the changes made until the matching endBatch are delivered to the listeners together,
+	 * under one version. Batches nest, only the outermost one delivers.
+	 */
+	public void beginBatch()
+	{
+		batchDepth++;
+	}
+	
+	/**
+	 * Ends a batch, delivering its changes if it is the outermost one
+	 */
+	public void endBatch()
+	{
+		if (batchDepth == 0)
+		{
+			throw new IllegalStateException("No batch to end.");
+		}
+		
+		if (--batchDepth == 0)
+		{
+			deliver();
+		}
+	}
+	
+	/**
+	 * Returns the number of changes recorded for the listeners in the open batch, to discard back to
+	 * @return the number of pending changes
+	 */
+	int getPendingEventCount()
+	{
+		return pendingEvents.size();
+	}
+	
+	/**
+	 * Ends a batch whose changes were undone: the changes recorded since the mark are dropped instead of
+	 * delivered, and if it is the outermost batch the version stays as it was.
+	 * @param mark number of pending changes when the batch began
+	 */
+	void discardBatch(int mark)
+	{
+		if (batchDepth == 0)
+		{
+			throw new IllegalStateException("No batch to discard.");
+		}
+		
+		pendingEvents.subList(Math.min(mark, pendingEvents.size()), pendingEvents.size()).clear();
+		if (--batchDepth == 0)
+		{
+			pendingEvents.clear();
+			pendingChange = false;
+		}
+	}
+	
+	/**
+	 * Method records a change, delivering it at once outside of a batch.
+	 * No event is built while nothing listens, only the version changes. Changes are recorded and delivered
+	 * holding the lock of the pending list, as a ConcurrentGraph changes roads of different towns at once.
+	 * @param type kind of change
+	 * @param town town added or removed
+	 * @param road road added or removed
+	 */
+	void changed(GraphEvent.Type type, Town town, Road road)
+	{
+		synchronized (pendingEvents)
+		{
+			pendingChange = true;
+			if (!listeners.isEmpty())
+			{
+				pendingEvents.add(new GraphEvent(this, type, town, road));
+			}
+			
+			if (batchDepth == 0)
+			{
+				deliver();
+			}
+		}
+	}
+	
+	/**
+	 * Method increments the version and hands the pending changes to the listeners
+	 */
+	private void deliver()
+	{
+		synchronized (pendingEvents)
+		{
+			if (!pendingChange)
+			{
+				return;
+			}
+			
+			pendingChange = false;
+			version++;
+			if (pendingEvents.isEmpty())
+			{
+				return;
+			}
+			
+			List<GraphEvent> events = Collections.unmodifiableList(new ArrayList<GraphEvent>(pendingEvents));
+			pendingEvents.clear();
+			
+			long deliveredVersion = version;
+			for (GraphListener listener : listeners)
+			{
+				try
+				{
+					listener.graphChanged(events, deliveredVersion);
+				}
+				catch (RuntimeException e)
+				{
+					Log.GRAPH.error(() -> "Graph listener " + listener + " failed: " + e);
+				}
+			}
+		}
+	}
+	
 	/**
 	 * Getter method for edge count
 	 * @return edge count
 	 */
 	public int getEdgeCount()
 	{
-		return edgeCount;
+		return edgeCount.get();
 	}
 	
     /**
@@ -446,36 +839,33 @@ public class Graph implements GraphInterface<Town, Road>
 			return false;
 		}
 		
-		//vertex exists in graph
-			
-		//Town iterator
-		Iterator<Town> townIterator = towns.getValueIterator();
-			
-		//current Town and Road to remove
-		Town currentTown = null;
-		Road roadToRemove = null;
+		//the roads of the town in this graph, copied as unlinking them changes its lists
+		Town town = towns.getValue(v.getName());
+		ArrayList<Road> incident = new ArrayList<Road>(town.getOutgoingList().getLength() + town.getIncomingList().getLength());
+		Iterator<Road> roads = town.getRoadIterator();
+		while (roads.hasNext())
+		{
+			incident.add(roads.next());
+		}
 		
-		System.out.println("Removing Town " + v.getName());
+		Log.GRAPH.trace(() -> "Removing Town " + v.getName());
+		beginBatch();
 
-		System.out.println("Removing all Roads connected to " + v.getName());
-		//delete roads connecting other vertices to the argument vertex
-		for (int i = 0; i < towns.getSize(); i++)
+		Log.GRAPH.trace(() -> "Removing all " + incident.size() + " Roads connected to " + v.getName());
+		//unlinks each road from both towns at its recorded positions
+		for (Road road : incident)
 		{
-			//gets next town
-			currentTown = townIterator.next();
-				
-			if (!currentTown.equals(v))
-			{
-				if ((roadToRemove = getEdge(currentTown, v)) != null)
-				{
-					removeEdge(currentTown, v, roadToRemove.getWeight(), roadToRemove.getName());
-				}
-			}
+			road.getSource().detach(road);
+			edgeCount.decrementAndGet();
+			changed(GraphEvent.Type.ROAD_REMOVED, null, road);
 		}
 			
 		//delete vertex
-		towns.remove(v.getName());
-		System.out.println("Removed Town " + v.getName());
+		Town removed = towns.remove(v.getName());
+		townsById[removed.getId()] = null;
+		changed(GraphEvent.Type.TOWN_REMOVED, removed, null);
+		endBatch();
+		Log.GRAPH.trace(() -> "Removed Town " + v.getName());
 		
 		return true;
 	}
@@ -496,24 +886,36 @@ public class Graph implements GraphInterface<Town, Road>
      */   
 	public ArrayList<String> shortestPath(Town sourceVertex, Town destinationVertex) 
 	{
-		dijkstraShortestPath(sourceVertex);
-		
 		ArrayList<String> result = new ArrayList<String>();
 		
-		//enhance with disjoint 
-		System.out.println("Creating ArrayList of the shortest path from  " + sourceVertex.getName() + " to " + destinationVertex.getName());
-		
-		LinkedStack<String> path = (LinkedStack<String>) sourceVertex.getShortestPath(destinationVertex);
+		Log.ROUTING.trace(() -> "Creating ArrayList of the shortest path from  " + sourceVertex.getName() + " to " + destinationVertex.getName());
 		
-		if (path == null)
+		Town source = getTown(sourceVertex);
+		Town destination = getTown(destinationVertex);
+		if (source == null || destination == null || source == destination)
 		{
 			return result;
 		}
+		
+		ShortestPathSearch search = getSearch();
+		if (search.search(source.getId(), destination.getId()))
+		{
+			ArrayStack<String> path = buildPath(search, destination.getId());
+			source.addShortestPath(destination, path);
+			
+			List<String> steps = path.asList();
+			result.ensureCapacity(steps.size());
+			for (int i = 0; i < steps.size(); i++)
+			{
+				result.add(steps.get(i));
+			}
+		}
 		else
 		{
-			result.addAll(path.toArrayList());
-			return result;
+			Log.ROUTING.debug(() -> "Towns " + source.getName() + " and " + destination.getName() + " are disjoint.");
+			source.getPaths().remove(destination.getName());
 		}
+		return result;
 	}
 
     /**
@@ -523,168 +925,363 @@ public class Graph implements GraphInterface<Town, Road>
      * @param sourceVertex the vertex to find shortest path from
      */
 	public void dijkstraShortestPath(Town sourceVertex) 
-	{		
-		//town iterator
-		Iterator<Town> townIterator = towns.getValueIterator();
+	{
+		Town source = getTown(sourceVertex);
+		if (source == null)
+		{
+			throw new IllegalArgumentException();
+		}
 		
-		//destination Town
-		Town destinationVertex = null;
+		ShortestPathSearch search = getSearch();
+		search.search(source.getId());
 		
-		//loops through towns finding the shortest path to each destination from the source
+		//stores the path to every other town, and forgets the paths to towns no longer reachable
+		Iterator<Town> townIterator = towns.getValueIterator();
 		while (townIterator.hasNext())
 		{
-			resetVertices();
-			
-			destinationVertex = townIterator.next();
-			
-			//different endpoints - valid evaluation
-			if (!destinationVertex.equals(sourceVertex))
+			Town destinationVertex = townIterator.next();
+			if (destinationVertex != source)
 			{
-				System.out.println("Finding path between "  + sourceVertex.getName() + " and " + destinationVertex.getName());
-				
-				//Queue for traversing (unvisited) nodes/vertices
-				PriorityQueue<EntryPQ> townPriorityQueue = new PriorityQueue<EntryPQ>((o1, o2) -> o1.getCostFromOrigin() - o2.getCostFromOrigin());
-				
-				//adds origin within an entry to priorityqueue, then continues from here adding it's unvisited neighbors to the priorityqueue
-				townPriorityQueue.add(new EntryPQ(sourceVertex, 0, null));
-				
-				//flag to end dijkstra's path algorithm
-				boolean done = false;
-						
-				//(while there are) visits all vertices once and enqueues their neighbors
-				while (!done && !townPriorityQueue.isEmpty())
-				{					
-					//accesses priorityqueue vertex through entry
-					EntryPQ entry = townPriorityQueue.remove();
-					Town town = entry.getVertex();
-
-					//process unvisited vertex
-					if (!town.isVisited())
-					{
-						//visit, cost (from origin), predecessor
-						town.visit();
-						town.setCost(entry.getCostFromOrigin());
-						town.setPredecessor(entry.getPredecessor());
-								
-						//priorityqueue vertex is the end vertex therefore we have found the cheapest path at this processing point
-						if (town.equals(destinationVertex))
-						{
-							done = true;
-						}
-						else //else priority enqueue all the unvisited neighbors, visited neighbors will be currently being reached via longer path
-						{
-							//adjacency list and corresponding edge weight
-							Iterator<Town> neighbors = town.getNeighborIterator();
-							Iterator<Integer> weights = town.getWeightIterator();
-									
-							//sequential search for unvisited neighbors, adding them (and their path totals) to the priority queue.
-							while (neighbors.hasNext())
-							{
-								Town neighbor = neighbors.next();
-								Integer weight = weights.next();
-										
-								if (!neighbor.isVisited())
-								{
-									townPriorityQueue.add(new EntryPQ(neighbor, weight + town.getCost(), town));
-								}
-							}
-						}
-					}	
-				}
-				
-				//found path
-				if (done)
+				if (search.isReached(destinationVertex.getId()))
 				{
-					System.out.println("Found shortest path between " + sourceVertex.getName() + " and " + destinationVertex.getName());
-					
-					//Stack for storing path
-					LinkedStack<String> path = new LinkedStack<String>();
-					
-					//backtracks storing path
-					Town originalDestination = destinationVertex;
-					System.out.println(destinationVertex.getPredecessor().getName() + " via " + getEdge(destinationVertex.getPredecessor(), destinationVertex).getName() + " to " + destinationVertex.getName() + " " + getEdge(destinationVertex.getPredecessor(), destinationVertex).getWeight() + " mi");
-					path.push(destinationVertex.getPredecessor().getName() + " via " + getEdge(destinationVertex.getPredecessor(), destinationVertex).getName() + " to " + destinationVertex.getName() + " " + getEdge(destinationVertex.getPredecessor(), destinationVertex).getWeight() + " mi");
-					while (destinationVertex.hasPredecessor())
-					{
-						destinationVertex = destinationVertex.getPredecessor();
-						if (destinationVertex.hasPredecessor())
-						{
-							System.out.println(destinationVertex.getPredecessor().getName() + " via " + getEdge(destinationVertex.getPredecessor(), destinationVertex).getName() + " to " + destinationVertex.getName() + " " + getEdge(destinationVertex.getPredecessor(), destinationVertex).getWeight() + " mi");
-							path.push(destinationVertex.getPredecessor().getName() + " via " + getEdge(destinationVertex.getPredecessor(), destinationVertex).getName() + " to " + destinationVertex.getName() + " " + getEdge(destinationVertex.getPredecessor(), destinationVertex).getWeight() + " mi");
-						}
-					}
-										
-					//Adds path for this destination to this source's dictionary of shortest paths
-					sourceVertex.addShortestPath(originalDestination, path);
-					
-					System.out.println(path.toArrayList().toString());
+					source.addShortestPath(destinationVertex, buildPath(search, destinationVertex.getId()));
 				}
-				else //disjoint towns
+				else
 				{
-					System.out.println("Towns " + sourceVertex.getName() + " and " + destinationVertex.getName() + " are disjoint.");
+					Log.ROUTING.debug(() -> "Towns " + source.getName() + " and " + destinationVertex.getName() + " are disjoint.");
+					source.getPaths().remove(destinationVertex.getName());
 				}
 			}
 		}
+	}
+	
+	/**
+	 * Creates a search over the towns of this graph, for one thread at a time
+	 * @return a new search
+	 */
+	public ShortestPathSearch newSearch()
+	{
+		return new ShortestPathSearch(new GraphAdjacency(this));
+	}
+	
+	/**
+	 * Finds the shortest path between two towns with a given search, without storing it in the source town.
+	 * Threads each with their own search may find paths at once, as long as this graph does not change.
+	 * @param search search over this graph, see newSearch
+	 * @param source name of the starting town
+	 * @param destination name of the ending town
+	 * @return the steps of the path in the format of shortestPath, empty if the towns are the same,
+	 * unknown or disjoint
+	 */
+	ArrayList<String> findPath(ShortestPathSearch search, String source, String destination)
+	{
+		ArrayList<String> result = new ArrayList<String>();
+		Town from = source == null ? null : towns.getValue(source);
+		Town to = destination == null ? null : towns.getValue(destination);
+		if (from == null || to == null || from == to || !search.search(from.getId(), to.getId()))
+		{
+			return result;
+		}
 		
-		resetVertices();
+		List<String> steps = buildPath(search, to.getId()).asList();
+		result.ensureCapacity(steps.size());
+		for (int i = 0; i < steps.size(); i++)
+		{
+			result.add(steps.get(i));
+		}
+		return result;
 	}
-
+	
 	/**
-	 * Inner class for vertices that are placed in a priority queue
+	 * Method returns the search reused by the routing methods of this graph
+	 * @return the search
 	 */
-	private class EntryPQ
+	private ShortestPathSearch getSearch()
 	{
-		private Town vertex;
-		private int costFromOrigin;
-		private Town predecessor;
+		if (search == null)
+		{
+			search = newSearch();
+		}
+		return search;
+	}
+	
+	/**
+	 * Method backtracks the path a search found to a town, into a stack sized by the number of steps
+	 * @param search completed search
+	 * @param destination town id, reached by the search
+	 * @return a stack of the steps of the path, the first step on top
+	 */
+	private ArrayStack<String> buildPath(ShortestPathSearch search, int destination)
+	{
+		int steps = 0;
+		for (int current = destination; search.getPredecessor(current) >= 0; current = search.getPredecessor(current))
+		{
+			steps++;
+		}
 		
-		private EntryPQ(Town vertex, int costFromOrigin, Town predecessor)
+		ArrayStack<String> path = new ArrayStack<String>(steps);
+		
+		int current = destination;
+		int predecessor;
+		while ((predecessor = search.getPredecessor(current)) >= 0)
 		{
-			System.out.println("Creating EntryPQ for Town " + vertex.getName() + " with cost " + costFromOrigin + " from " + (predecessor == null? "Nowhere" : predecessor.getName()));
-			this.vertex = vertex;
-			this.costFromOrigin = costFromOrigin;
-			this.predecessor = predecessor;
+			String step = townsById[predecessor].getName() + " via " + search.getLegName(current) + " to " + townsById[current].getName() + " " + search.getLegWeight(current) + " mi";
+			Log.ROUTING.trace(() -> step);
+			path.push(step);
+			current = predecessor;
 		}
 		
-		private Town getVertex()
+		return path;
+	}
+	
+	/**
+	 * Inner class implementing the read-only vertex set, backed by the vertices by id
+	 */
+	private class TownSetView extends AbstractSet<Town>
+	{
+		public int size()
 		{
-			return vertex;
+			return towns.getSize();
 		}
 		
-		private Town getPredecessor()
+		public boolean contains(Object o)
 		{
-			return predecessor;
+			return o instanceof Town && containsVertex((Town) o);
 		}
 		
-		private int getCostFromOrigin()
+		public Iterator<Town> iterator()
 		{
-			return costFromOrigin;
+			return Spliterators.iterator(spliterator());
 		}
 		
-		@SuppressWarnings("unused")
-		private void setCostFromOrigin(int costFromOrigin)
+		public Spliterator<Town> spliterator()
 		{
-			this.costFromOrigin = costFromOrigin;
+			return new TownSpliterator(0, -1);
 		}
 	}
 	
 	/**
-	 * Method used to reset vertices for algorithms to work
+	 * Inner class implementing the read-only edge set, backed by the adjacency lists
 	 */
-	private void resetVertices()
+	private class RoadSetView extends AbstractSet<Road>
 	{
-		System.out.println("Resetting vertices");
+		public int size()
+		{
+			return edgeCount.get();
+		}
 		
-		//to access all the vertices we instantiate an iterator object assigned to the dictionary's value iterator
-		Iterator<Town> townIterator = towns.getValueIterator();
+		public boolean contains(Object o)
+		{
+			if (!(o instanceof Road))
+			{
+				return false;
+			}
+			Road road = (Road) o;
+			return containsVertex(road.getSource()) && containsVertex(road.getDestination()) && containsEdge(road.getSource(), road.getDestination());
+		}
 		
-		while (townIterator.hasNext())
+		public Iterator<Road> iterator()
+		{
+			return Spliterators.iterator(spliterator());
+		}
+		
+		public Spliterator<Road> spliterator()
+		{
+			return new RoadSpliterator(0, -1);
+		}
+	}
+	
+	/**
+	 * Inner class implementing a spliterator over a range of vertex ids
+	 * Splitting halves the remaining range, skipping the ids of removed vertices costs one array read each
+	 */
+	private class TownSpliterator implements Spliterator<Town>
+	{
+		private int index; //next id
+		private int fence; //one past the last id, -1 until first used
+		
+		private TownSpliterator(int origin, int fence)
+		{
+			index = origin;
+			this.fence = fence;
+		}
+		
+		private int getFence()
+		{
+			if (fence < 0)
+			{
+				fence = nextTownId;
+			}
+			return fence;
+		}
+		
+		public boolean tryAdvance(Consumer<? super Town> action)
+		{
+			int hi = getFence();
+			while (index < hi)
+			{
+				Town town = townsById[index++];
+				if (town != null)
+				{
+					action.accept(town);
+					return true;
+				}
+			}
+			return false;
+		}
+		
+		public void forEachRemaining(Consumer<? super Town> action)
+		{
+			int hi = getFence();
+			Town[] byId = townsById;
+			for (int i = index; i < hi; i++)
+			{
+				if (byId[i] != null)
+				{
+					action.accept(byId[i]);
+				}
+			}
+			index = hi;
+		}
+		
+		public Spliterator<Town> trySplit()
+		{
+			int lo = index;
+			int mid = (lo + getFence()) >>> 1;
+			if (lo >= mid)
+			{
+				return null;
+			}
+			index = mid;
+			return new TownSpliterator(lo, mid);
+		}
+		
+		public long estimateSize()
+		{
+			return getFence() - index;
+		}
+		
+		public int characteristics()
 		{
-			Town currentTown = townIterator.next();
-			currentTown.unvisit();
-			currentTown.setPredecessor(null);
-			currentTown.setCost(0);
+			return Spliterator.DISTINCT | Spliterator.NONNULL;
 		}
 	}
 	
+	/**
+	 * Inner class implementing a spliterator over the roads of a range of vertex ids
+	 * A two-way road sits in the outgoing lists of both of its towns, so it is only reported from its source town
+	 */
+	private class RoadSpliterator implements Spliterator<Road>
+	{
+		private int index; //next id
+		private int fence; //one past the last id, -1 until first used
+		private Town current; //town whose adjacency list is being read
+		private int position; //next position in the adjacency list of current
+		
+		private RoadSpliterator(int origin, int fence)
+		{
+			index = origin;
+			this.fence = fence;
+		}
+		
+		private int getFence()
+		{
+			if (fence < 0)
+			{
+				fence = nextTownId;
+			}
+			return fence;
+		}
+		
+		public boolean tryAdvance(Consumer<? super Road> action)
+		{
+			int hi = getFence();
+			while (true)
+			{
+				if (current != null)
+				{
+					ArrayListWithIterator<Road> list = current.getOutgoingList();
+					while (position < list.getLength())
+					{
+						Road road = list.getEntry(position++);
+						if (road.getSource() == current)
+						{
+							action.accept(road);
+							return true;
+						}
+					}
+					current = null;
+				}
+				if (index >= hi)
+				{
+					return false;
+				}
+				current = townsById[index++];
+				position = 0;
+			}
+		}
+		
+		public void forEachRemaining(Consumer<? super Road> action)
+		{
+			if (current != null)
+			{
+				ArrayListWithIterator<Road> list = current.getOutgoingList();
+				while (position < list.getLength())
+				{
+					Road road = list.getEntry(position++);
+					if (road.getSource() == current)
+					{
+						action.accept(road);
+					}
+				}
+				current = null;
+			}
+			int hi = getFence();
+			Town[] byId = townsById;
+			for (int i = index; i < hi; i++)
+			{
+				Town town = byId[i];
+				if (town != null)
+				{
+					ArrayListWithIterator<Road> list = town.getOutgoingList();
+					for (int j = 0; j < list.getLength(); j++)
+					{
+						Road road = list.getEntry(j);
+						if (road.getSource() == town)
+						{
+							action.accept(road);
+						}
+					}
+				}
+			}
+			index = hi;
+		}
+		
+		public Spliterator<Road> trySplit()
+		{
+			int lo = index;
+			int mid = (lo + getFence()) >>> 1;
+			if (lo >= mid)
+			{
+				return null;
+			}
+			index = mid;
+			RoadSpliterator prefix = new RoadSpliterator(lo, mid);
+			prefix.current = current;
+			prefix.position = position;
+			current = null;
+			return prefix;
+		}
+		
+		public long estimateSize()
+		{
+			int bound = nextTownId;
+			return bound == 0 ? 0 : (long) edgeCount.get() * (getFence() - index) / bound;
+		}
+		
+		public int characteristics()
+		{
+			return Spliterator.DISTINCT | Spliterator.NONNULL;
+		}
+	}
 }
@@ -0,0 +1,107 @@
+package Graph_Classes;
+
+import Data_Structures.ArrayListWithIterator;
+import Interfaces.AdjacencyInterface;
+
+/**
+ * Class implementing adjacency over the live towns and roads of a graph, by town id.
+ * A two-way road leads from each of its towns to the other, a one-way road from its source to its destination.
+ */
+public class GraphAdjacency implements AdjacencyInterface
+{
+	private Graph graph;
+	
+	/**
+	 * Parameterized constructor
+	 * @param graph graph to read
+	 */
+	public GraphAdjacency(Graph graph)
+	{
+		this.graph = graph;
+	}
+	
+	/**
+	 * Returns the number of town ids, some ids may have no town
+	 * @return the bound of the town ids
+	 */
+	public int getTownCount()
+	{
+		return graph.getTownIdBound();
+	}
+	
+	/**
+	 * Returns the name of a town
+	 * @param town town id
+	 * @return the town name, or null if no town has the id
+	 */
+	public String getTownName(int town)
+	{
+		Town vertex = graph.getTownById(town);
+		return vertex == null ? null : vertex.getName();
+	}
+	
+	/**
+	 * Returns the number of roads leaving a town
+	 * @param town town id
+	 * @return the degree of the town
+	 */
+	public int getDegree(int town)
+	{
+		Town vertex = graph.getTownById(town);
+		return vertex == null ? 0 : vertex.getOutgoingList().getLength();
+	}
+	
+	/**
+	 * Creates a cursor over the roads leaving a town
+	 * @return a new cursor
+	 */
+	public Cursor getCursor()
+	{
+		return new RoadCursor();
+	}
+	
+	/**
+	 * Inner class implementing a cursor over the outgoing adjacency list of a town
+	 */
+	private class RoadCursor implements Cursor
+	{
+		private Town town;
+		private ArrayListWithIterator<Road> roads;
+		private int position; //position of the current road plus one
+		private Road road;
+		
+		public void reset(int id)
+		{
+			town = graph.getTownById(id);
+			roads = town == null ? null : town.getOutgoingList();
+			position = 0;
+			road = null;
+		}
+		
+		public boolean next()
+		{
+			if (roads != null && position < roads.getLength())
+			{
+				road = roads.getEntry(position++);
+				return true;
+			}
+			road = null;
+			return false;
+		}
+		
+		public int getTarget()
+		{
+			return road.getOpposite(town).getId();
+		}
+		
+		public int getWeight()
+		{
+			return road.getWeight();
+		}
+		
+		public String getRoadName()
+		{
+			return road.getName();
+		}
+	}
+}
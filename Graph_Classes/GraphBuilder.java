@@ -0,0 +1,104 @@
+package Graph_Classes;
+
+import java.util.ArrayList;
+
+/**
+ * Class collecting the roads of several producer threads at once, e.g. one per road file or region.
+ * Each thread takes its own producer and adds roads to it without locking. Only this collecting, i.e. the
+ * parsing feeding it, runs in parallel: once every producer is done, the graph is built from the roads by
+ * one bulk add on the calling thread, in the order the producers were created.
+ */
+public class GraphBuilder
+{
+	private final ArrayList<Producer> producers; //in creation order, guarded by itself
+	
+	/**
+	 * Default constructor
+	 */
+	public GraphBuilder()
+	{
+		producers = new ArrayList<Producer>();
+	}
+	
+	/**
+	 * Creates a producer for one thread. A producer is not thread-safe, but any number of producers
+	 * may be filled at once.
+	 * @return a new producer
+	 */
+	public Producer newProducer()
+	{
+		Producer producer = new Producer();
+		synchronized (producers)
+		{
+			producers.add(producer);
+		}
+		return producer;
+	}
+	
+	/**
+	 * Merges the roads of every producer into a graph, adding the towns they name that are not yet in it.
+	 * Must be called once every producer is done. As with Graph.addEdges, duplicate and looping roads are
+	 * skipped, the first one in producer order winning.
+	 * @param graph graph to add to
+	 * @return the number of roads added
+	 */
+	public int addTo(Graph graph)
+	{
+		ArrayList<Producer> done;
+		synchronized (producers)
+		{
+			done = new ArrayList<Producer>(producers);
+		}
+		
+		int total = 0;
+		for (Producer producer : done)
+		{
+			total += producer.roads.size();
+		}
+		
+		//one bulk add, as each call of addEdges walks every town id once
+		EdgeBuffer roads = new EdgeBuffer(total);
+		for (Producer producer : done)
+		{
+			roads.addAll(producer.roads);
+		}
+		return graph.addEdges(roads);
+	}
+	
+	/**
+	 * Inner class for the roads added by one producer thread
+	 */
+	public class Producer implements RoadFileParser.RoadHandler
+	{
+		private final EdgeBuffer roads;
+		
+		/**
+		 * Constructor
+		 */
+		private Producer()
+		{
+			roads = new EdgeBuffer();
+		}
+		
+		/**
+		 * Adds a road record
+		 * @param roadName name of the road
+		 * @param miles distance of the road
+		 * @param sourceTown name of the first town
+		 * @param destinationTown name of the second town
+		 */
+		public void road(String roadName, int miles, String sourceTown, String destinationTown)
+		{
+			roads.road(roadName, miles, sourceTown, destinationTown);
+		}
+		
+		/**
+		 * Getter method for the number of roads added
+		 * @return the road count
+		 */
+		public int size()
+		{
+			return roads.size();
+		}
+	}
+}
@@ -0,0 +1,95 @@
+package Graph_Classes;
+
+/**
+ * Class representing one change made to a graph, delivered to its listeners
+ */
+public class GraphEvent
+{
+	/**
+	 * Kinds of changes
+	 */
+	public enum Type
+	{
+		TOWN_ADDED,
+		TOWN_REMOVED,
+		ROAD_ADDED,
+		ROAD_REMOVED,
+		GRAPH_REPLACED //every town and road may have changed, e.g. a snapshot was loaded
+	}
+	
+	private Graph graph;
+	private Type type;
+	private Town town;
+	private Road road;
+	
+	/**
+	 * Parameterized Constructor
+	 * @param graph graph that changed
+	 * @param type kind of change
+	 * @param town town added or removed, null otherwise
+	 * @param road road added or removed, null otherwise
+	 */
+	GraphEvent(Graph graph, Type type, Town town, Road road)
+	{
+		this.graph = graph;
+		this.type = type;
+		this.town = town;
+		this.road = road;
+	}
+	
+	/**
+	 * Getter method for the graph that changed, for GRAPH_REPLACED the graph replacing the old one
+	 * @return the graph
+	 */
+	public Graph getGraph()
+	{
+		return graph;
+	}
+	
+	/**
+	 * Getter method for the kind of change
+	 * @return the kind of change
+	 */
+	public Type getType()
+	{
+		return type;
+	}
+	
+	/**
+	 * Getter method for the town added or removed
+	 * @return the town, or null for road changes
+	 */
+	public Town getTown()
+	{
+		return town;
+	}
+	
+	/**
+	 * Getter method for the road added or removed
+	 * @return the road, or null for town changes
+	 */
+	public Road getRoad()
+	{
+		return road;
+	}
+	
+	/**
+	 * toString method returns the event's information
+	 * @return String containing the kind of change and what changed
+	 */
+	public String toString()
+	{
+		if (town != null)
+		{
+			return type + " " + town;
+		}
+		else if (road != null)
+		{
+			return type + " " + road.getName() + " between " + road.getSource() + " and " + road.getDestination();
+		}
+		else
+		{
+			return type.toString();
+		}
+	}
+}
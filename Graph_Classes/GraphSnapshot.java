@@ -0,0 +1,634 @@
+package Graph_Classes;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+
+import Data_Structures.IntIntHashMap;
+import Logging.Log;
+
+/**
+ * Class implementing a compact binary snapshot of a graph.
+ * A snapshot holds a town name table, a road name table and the arcs of the roads in compressed sparse
+ * row (CSR) form: the row of a town holds an arc for every road leaving it, as the index of the town at
+ * the other end, the weight, the index of the road name and flags. A two-way road has an arc in the rows
+ * of both of its towns, only the one in the row of its source is marked forward. All big-endian, and the
+ * int sections come first so the file can be read in place through a memory mapping. A snapshot can also
+ * be encoded into direct memory.
+ * 
+ * Layout: magic, version, town count, road name count, road count, arc count, town name bytes, road name
+ * bytes, town name offsets [towns + 1], road name offsets [road names + 1], row offsets [towns + 1],
+ * targets [arcs], weights [arcs], road names [arcs], flags [arcs] (bytes), town name bytes, road name bytes
+ */
+public class GraphSnapshot
+{
+	private static final int MAGIC = 0x434E4753; //CNGS
+	private static final int VERSION = 2;
+	private static final int HEADER_INTS = 8;
+	static final int ARC_FORWARD = 1; //the arc goes from the source of its road to the destination
+	static final int ARC_ONE_WAY = 2; //the road of the arc is one-way
+	
+	private ByteBuffer buffer;
+	private int townCount;
+	private int roadNameCount;
+	private int roadCount;
+	private int arcCount;
+	private IntBuffer townNameOffsets;
+	private IntBuffer roadNameOffsets;
+	private IntBuffer rowOffsets;
+	private IntBuffer targets;
+	private IntBuffer weights;
+	private IntBuffer roadNames;
+	private ByteBuffer flags;
+	private int townNameBase;
+	private int roadNameBase;
+	
+	/**
+	 * Constructor reads the header of a snapshot and locates its sections
+	 * @param buffer snapshot bytes
+	 * @throws IOException thrown if the bytes are not a snapshot
+	 */
+	private GraphSnapshot(ByteBuffer buffer) throws IOException
+	{
+		this.buffer = buffer;
+		
+		if (buffer.capacity() < HEADER_INTS * 4 || buffer.getInt(0) != MAGIC)
+		{
+			throw new IOException("Not a graph snapshot.");
+		}
+		else if (buffer.getInt(4) != VERSION)
+		{
+			throw new IOException("Unsupported graph snapshot version " + buffer.getInt(4) + ".");
+		}
+		
+		townCount = buffer.getInt(8);
+		roadNameCount = buffer.getInt(12);
+		roadCount = buffer.getInt(16);
+		arcCount = buffer.getInt(20);
+		int townNameBytes = buffer.getInt(24);
+		int roadNameBytes = buffer.getInt(28);
+		
+		long expectedSize = size(townCount, roadNameCount, arcCount, townNameBytes, roadNameBytes);
+		if (townCount < 0 || roadNameCount < 0 || roadCount < 0 || roadCount > arcCount || arcCount < 0 || townNameBytes < 0 || roadNameBytes < 0 || expectedSize != buffer.capacity())
+		{
+			throw new IOException("Corrupt graph snapshot header.");
+		}
+		
+		int position = HEADER_INTS * 4;
+		townNameOffsets = intSection(position, townCount + 1);
+		position += 4 * (townCount + 1);
+		roadNameOffsets = intSection(position, roadNameCount + 1);
+		position += 4 * (roadNameCount + 1);
+		rowOffsets = intSection(position, townCount + 1);
+		position += 4 * (townCount + 1);
+		targets = intSection(position, arcCount);
+		position += 4 * arcCount;
+		weights = intSection(position, arcCount);
+		position += 4 * arcCount;
+		roadNames = intSection(position, arcCount);
+		position += 4 * arcCount;
+		flags = buffer.duplicate().position(position).limit(position + arcCount).slice();
+		position += arcCount;
+		townNameBase = position;
+		roadNameBase = position + townNameBytes;
+	}
+	
+	/**
+	 * Returns the size of a snapshot
+	 * @param townCount number of towns
+	 * @param roadNameCount number of road names
+	 * @param arcCount number of arcs
+	 * @param townNameBytes bytes of the town names
+	 * @param roadNameBytes bytes of the road names
+	 * @return the number of bytes
+	 */
+	private static long size(long townCount, long roadNameCount, long arcCount, long townNameBytes, long roadNameBytes)
+	{
+		return 4L * (HEADER_INTS + 2L * (townCount + 1) + (roadNameCount + 1) + 3L * arcCount) + arcCount + townNameBytes + roadNameBytes;
+	}
+	
+	/**
+	 * Opens a snapshot file through a read-only memory mapping
+	 * @param file snapshot file
+	 * @return the snapshot
+	 * @throws IOException thrown if the file cannot be read or is not a snapshot
+	 */
+	public static GraphSnapshot open(File file) throws IOException
+	{
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+		{
+			if (channel.size() > Integer.MAX_VALUE)
+			{
+				throw new IOException("Graph snapshot " + file.getName() + " is too large to map.");
+			}
+			return new GraphSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+	}
+	
+	/**
+	 * Saves a graph as a snapshot. The snapshot is written next to the file and then moved over it,
+	 * so an existing snapshot is never left half written.
+	 * @param graph graph to save
+	 * @param file snapshot file
+	 * @throws IOException thrown if the file cannot be written
+	 */
+	public static void write(Graph graph, File file) throws IOException
+	{
+		Encoder encoder = new Encoder(graph);
+		
+		File temporary = new File(file.getAbsoluteFile().getParentFile(), file.getName() + ".tmp");
+		try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary), 1 << 16)))
+		{
+			encoder.write(output);
+		}
+		
+		try
+		{
+			Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (AtomicMoveNotSupportedException e)
+		{
+			Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		
+		Log.LOADING.debug(() -> "Saved " + encoder.towns.length + " Towns and " + encoder.roadCount + " Roads to snapshot " + file.getName());
+	}
+	
+	/**
+	 * Encodes a graph as a snapshot held in direct memory, outside of the Java heap
+	 * @param graph graph to encode
+	 * @return the snapshot
+	 * @throws IOException thrown if the graph is too large for one buffer
+	 */
+	public static GraphSnapshot offHeap(Graph graph) throws IOException
+	{
+		Encoder encoder = new Encoder(graph);
+		long size = encoder.size();
+		if (size > Integer.MAX_VALUE)
+		{
+			throw new IOException("Graph is too large for an off-heap snapshot.");
+		}
+		
+		ByteBuffer buffer = ByteBuffer.allocateDirect((int) size);
+		try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new BufferOutputStream(buffer), 1 << 16)))
+		{
+			encoder.write(output);
+		}
+		buffer.clear();
+		
+		Log.LOADING.debug(() -> "Encoded " + encoder.towns.length + " Towns and " + encoder.roadCount + " Roads off heap in " + size + " bytes");
+		return new GraphSnapshot(buffer);
+	}
+	
+	/**
+	 * Getter method for the number of towns
+	 * @return the number of towns
+	 */
+	public int getTownCount()
+	{
+		return townCount;
+	}
+	
+	/**
+	 * Getter method for the number of roads
+	 * @return the number of roads
+	 */
+	public int getRoadCount()
+	{
+		return roadCount;
+	}
+	
+	/**
+	 * Getter method for the number of arcs, a two-way road has two
+	 * @return the number of arcs
+	 */
+	int getArcCount()
+	{
+		return arcCount;
+	}
+	
+	/**
+	 * Getter method for the name of a town
+	 * @param town town index
+	 * @return the town name
+	 */
+	public String getTownName(int town)
+	{
+		return decode(townNameBase, townNameOffsets.get(town), townNameOffsets.get(town + 1));
+	}
+	
+	/**
+	 * Getter method for the number of road names
+	 * @return the number of distinct road names
+	 */
+	int getRoadNameCount()
+	{
+		return roadNameCount;
+	}
+	
+	/**
+	 * Getter method for a name of the road name table
+	 * @param name road name index
+	 * @return the road name
+	 */
+	String getRoadName(int name)
+	{
+		return decode(roadNameBase, roadNameOffsets.get(name), roadNameOffsets.get(name + 1));
+	}
+	
+	/**
+	 * Getter method for the first arc of the row of a town
+	 * @param town town index, or the town count for the end of the last row
+	 * @return the arc index
+	 */
+	int getRowStart(int town)
+	{
+		return rowOffsets.get(town);
+	}
+	
+	/**
+	 * Getter method for the town an arc leads to
+	 * @param arc arc index
+	 * @return the target town index
+	 */
+	int getArcTarget(int arc)
+	{
+		return targets.get(arc);
+	}
+	
+	/**
+	 * Getter method for the weight of the road of an arc
+	 * @param arc arc index
+	 * @return the road weight
+	 */
+	int getArcWeight(int arc)
+	{
+		return weights.get(arc);
+	}
+	
+	/**
+	 * Getter method for the name of the road of an arc
+	 * @param arc arc index
+	 * @return the road name index
+	 */
+	int getArcNameIndex(int arc)
+	{
+		return roadNames.get(arc);
+	}
+	
+	/**
+	 * Getter method for the flags of an arc, ARC_FORWARD and ARC_ONE_WAY
+	 * @param arc arc index
+	 * @return the flags
+	 */
+	int getArcFlags(int arc)
+	{
+		return flags.get(arc);
+	}
+	
+	/**
+	 * Builds a graph from this snapshot. The snapshot was a valid graph when saved, so towns and roads
+	 * are restored without the duplicate checks of addVertex and addEdge; only the indexes are checked.
+	 * @return the graph
+	 * @throws IOException thrown if the snapshot is corrupt
+	 */
+	public Graph toGraph() throws IOException
+	{
+		try
+		{
+			return buildGraph();
+		}
+		catch (IndexOutOfBoundsException e)
+		{
+			throw new IOException("Corrupt graph snapshot.", e);
+		}
+	}
+	
+	/**
+	 * Method builds the graph of this snapshot
+	 * @return the graph
+	 * @throws IOException thrown if the snapshot is corrupt
+	 */
+	private Graph buildGraph() throws IOException
+	{
+		Graph graph = new Graph(townCount);
+		
+		Town[] towns = new Town[townCount];
+		for (int i = 0; i < townCount; i++)
+		{
+			towns[i] = new Town(getTownName(i));
+			graph.restoreVertex(towns[i]);
+		}
+		
+		String[] roadNameTable = new String[roadNameCount];
+		for (int i = 0; i < roadNameCount; i++)
+		{
+			roadNameTable[i] = getRoadName(i);
+		}
+		
+		//each road is restored from its forward arc, in the row of its source
+		int restored = 0;
+		for (int i = 0; i < townCount; i++)
+		{
+			int from = rowOffsets.get(i);
+			int to = rowOffsets.get(i + 1);
+			if (from > to || to > arcCount)
+			{
+				throw new IOException("Corrupt graph snapshot row " + i + ".");
+			}
+			
+			for (int arc = from; arc < to; arc++)
+			{
+				int target = targets.get(arc);
+				int name = roadNames.get(arc);
+				int arcFlags = flags.get(arc);
+				if (target < 0 || target >= townCount || target == i || name < 0 || name >= roadNameCount)
+				{
+					throw new IOException("Corrupt graph snapshot arc " + arc + ".");
+				}
+				if ((arcFlags & ARC_FORWARD) != 0)
+				{
+					graph.restoreEdge(new Road(towns[i], towns[target], weights.get(arc), roadNameTable[name], (arcFlags & ARC_ONE_WAY) != 0));
+					restored++;
+				}
+			}
+		}
+		if (restored != roadCount)
+		{
+			throw new IOException("Corrupt graph snapshot, " + restored + " of " + roadCount + " roads found.");
+		}
+		
+		Log.LOADING.debug(() -> "Restored " + townCount + " Towns and " + roadCount + " Roads from snapshot");
+		return graph;
+	}
+	
+	/**
+	 * Method views a section of ints of the snapshot
+	 * @param position byte position of the section
+	 * @param length number of ints
+	 * @return the view
+	 */
+	private IntBuffer intSection(int position, int length)
+	{
+		ByteBuffer section = buffer.duplicate();
+		section.position(position);
+		section.limit(position + 4 * length);
+		return section.slice().asIntBuffer();
+	}
+	
+	/**
+	 * Method decodes a name of a name table
+	 * @param base byte position of the table
+	 * @param from offset of the first byte of the name
+	 * @param to offset after the last byte of the name
+	 * @return the name
+	 * @throws IndexOutOfBoundsException thrown if the offsets are outside the snapshot
+	 */
+	private String decode(int base, int from, int to)
+	{
+		if (from < 0 || from > to || base + to > buffer.capacity())
+		{
+			throw new IndexOutOfBoundsException("Corrupt graph snapshot name table.");
+		}
+		byte[] bytes = new byte[to - from];
+		buffer.duplicate().position(base + from).get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+	
+	/**
+	 * Method writes an array of ints
+	 * @param output stream
+	 * @param values ints to write
+	 * @throws IOException thrown if the stream cannot be written
+	 */
+	private static void writeInts(DataOutputStream output, int[] values) throws IOException
+	{
+		for (int value : values)
+		{
+			output.writeInt(value);
+		}
+	}
+	
+	/**
+	 * Inner class laying out the tables and rows of a graph, then writing them as a snapshot
+	 */
+	private static class Encoder
+	{
+		private Town[] towns;
+		private byte[][] townNames;
+		private int townNameBytes;
+		private int[] rowOffsets;
+		private int roadCount;
+		private int arcCount;
+		private int[] targets;
+		private int[] weights;
+		private int[] roadNameIndexes;
+		private byte[] arcFlags;
+		private int roadNameCount;
+		private ByteArrayBuilder roadNameBytes;
+		private IntArrayBuilder roadNameOffsets;
+		
+		/**
+		 * Lays out a graph
+		 * @param graph graph to encode
+		 */
+		private Encoder(Graph graph)
+		{
+			//town table
+			towns = graph.vertexSet().toArray(new Town[0]);
+			IntIntHashMap townIndexes = new IntIntHashMap(towns.length, -1); //<town id, index>
+			townNames = new byte[towns.length][];
+			townNameBytes = 0;
+			for (int i = 0; i < towns.length; i++)
+			{
+				townIndexes.put(towns[i].getId(), i);
+				townNames[i] = towns[i].getName().getBytes(StandardCharsets.UTF_8);
+				townNameBytes += townNames[i].length;
+			}
+			
+			//arcs, taken from the outgoing adjacency list of each town
+			rowOffsets = new int[towns.length + 1];
+			for (int i = 0; i < towns.length; i++)
+			{
+				rowOffsets[i + 1] = rowOffsets[i] + towns[i].getOutgoingList().getLength();
+			}
+			
+			arcCount = rowOffsets[towns.length];
+			roadCount = 0;
+			targets = new int[arcCount];
+			weights = new int[arcCount];
+			roadNameIndexes = new int[arcCount];
+			arcFlags = new byte[arcCount];
+			HashMap<String, Integer> roadNameTable = new HashMap<String, Integer>();
+			roadNameBytes = new ByteArrayBuilder();
+			roadNameOffsets = new IntArrayBuilder();
+			roadNameOffsets.add(0);
+			
+			int next = 0;
+			for (int i = 0; i < towns.length; i++)
+			{
+				Iterator<Road> roads = towns[i].getOutgoingList().iterator();
+				while (roads.hasNext())
+				{
+					Road road = roads.next();
+					Integer nameIndex = roadNameTable.get(road.getName());
+					if (nameIndex == null)
+					{
+						nameIndex = roadNameTable.size();
+						roadNameTable.put(road.getName(), nameIndex);
+						roadNameBytes.add(road.getName().getBytes(StandardCharsets.UTF_8));
+						roadNameOffsets.add(roadNameBytes.size());
+					}
+					targets[next] = townIndexes.get(road.getOpposite(towns[i]).getId());
+					weights[next] = road.getWeight();
+					roadNameIndexes[next] = nameIndex;
+					if (road.getSource() == towns[i])
+					{
+						arcFlags[next] |= ARC_FORWARD;
+						roadCount++;
+					}
+					if (road.isOneWay())
+					{
+						arcFlags[next] |= ARC_ONE_WAY;
+					}
+					next++;
+				}
+			}
+			roadNameCount = roadNameTable.size();
+		}
+		
+		/**
+		 * Returns the size of the snapshot
+		 * @return the number of bytes
+		 */
+		private long size()
+		{
+			return GraphSnapshot.size(towns.length, roadNameCount, arcCount, townNameBytes, roadNameBytes.size());
+		}
+		
+		/**
+		 * Writes the snapshot
+		 * @param output stream
+		 * @throws IOException thrown if the stream cannot be written
+		 */
+		private void write(DataOutputStream output) throws IOException
+		{
+			output.writeInt(MAGIC);
+			output.writeInt(VERSION);
+			output.writeInt(towns.length);
+			output.writeInt(roadNameCount);
+			output.writeInt(roadCount);
+			output.writeInt(arcCount);
+			output.writeInt(townNameBytes);
+			output.writeInt(roadNameBytes.size());
+			
+			int offset = 0;
+			output.writeInt(offset);
+			for (byte[] name : townNames)
+			{
+				offset += name.length;
+				output.writeInt(offset);
+			}
+			writeInts(output, roadNameOffsets.toArray());
+			writeInts(output, rowOffsets);
+			writeInts(output, targets);
+			writeInts(output, weights);
+			writeInts(output, roadNameIndexes);
+			output.write(arcFlags);
+			for (byte[] name : townNames)
+			{
+				output.write(name);
+			}
+			output.write(roadNameBytes.toArray());
+		}
+	}
+	
+	/**
+	 * Inner class implementing an output stream filling a buffer
+	 */
+	private static class BufferOutputStream extends OutputStream
+	{
+		private ByteBuffer buffer;
+		
+		private BufferOutputStream(ByteBuffer buffer)
+		{
+			this.buffer = buffer;
+		}
+		
+		public void write(int b)
+		{
+			buffer.put((byte) b);
+		}
+		
+		public void write(byte[] bytes, int offset, int length)
+		{
+			buffer.put(bytes, offset, length);
+		}
+	}
+	
+	/**
+	 * Inner class for a growable array of bytes
+	 */
+	private static class ByteArrayBuilder
+	{
+		private byte[] bytes = new byte[256];
+		private int size = 0;
+		
+		private void add(byte[] more)
+		{
+			while (size + more.length > bytes.length)
+			{
+				bytes = Arrays.copyOf(bytes, bytes.length * 2);
+			}
+			System.arraycopy(more, 0, bytes, size, more.length);
+			size += more.length;
+		}
+		
+		private int size()
+		{
+			return size;
+		}
+		
+		private byte[] toArray()
+		{
+			return Arrays.copyOf(bytes, size);
+		}
+	}
+	
+	/**
+	 * Inner class for a growable array of ints
+	 */
+	private static class IntArrayBuilder
+	{
+		private int[] values = new int[64];
+		private int size = 0;
+		
+		private void add(int value)
+		{
+			if (size == values.length)
+			{
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = value;
+		}
+		
+		private int[] toArray()
+		{
+			return Arrays.copyOf(values, size);
+		}
+	}
+}
@@ -0,0 +1,415 @@
+package Graph_Classes;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import Data_Structures.ArrayListWithIterator;
+import Data_Structures.ArrayStack;
+import Data_Structures.PersistentHashMap;
+import Interfaces.AdjacencyInterface;
+
+/**
+ * Class implementing an immutable version of the towns and roads of a graph, safe to read from any number of
+ * threads without locking while the graph keeps changing.
+ * The roads leaving each town are copied into a row of arrays. The rows are kept in chunks of 512 town ids,
+ * so the next version copies only the rows of the towns a batch touched and the chunks holding them; every
+ * other row and chunk, and most of the name map, is shared with this version.
+ */
+public class GraphVersion implements AdjacencyInterface
+{
+	private static final int CHUNK_BITS = 9;
+	private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+	
+	private final long version;
+	private final TownRow[][] chunks; //rows by town id, a row null where no town
+	private final int townCount;
+	private final int roadCount;
+	private final PersistentHashMap<String, Integer> ids; //<town name, town id>
+	
+	/**
+	 * Constructor
+	 * @param version graph version
+	 * @param chunks rows by town id
+	 * @param townCount bound of the town ids
+	 * @param roadCount number of roads
+	 * @param ids town ids by name
+	 */
+	private GraphVersion(long version, TownRow[][] chunks, int townCount, int roadCount, PersistentHashMap<String, Integer> ids)
+	{
+		this.version = version;
+		this.chunks = chunks;
+		this.townCount = townCount;
+		this.roadCount = roadCount;
+		this.ids = ids;
+	}
+	
+	/**
+	 * Copies every town and road of a graph, keeping its town ids
+	 * @param graph graph to copy
+	 * @return the version of the graph
+	 */
+	public static GraphVersion of(Graph graph)
+	{
+		int townCount = graph.getTownIdBound();
+		TownRow[][] chunks = new TownRow[chunkCount(townCount)][];
+		PersistentHashMap<String, Integer> ids = PersistentHashMap.empty();
+		
+		for (int c = 0; c < chunks.length; c++)
+		{
+			chunks[c] = new TownRow[CHUNK_SIZE];
+		}
+		for (int id = 0; id < townCount; id++)
+		{
+			TownRow row = TownRow.of(graph.getTownById(id));
+			if (row != null)
+			{
+				chunks[id >>> CHUNK_BITS][id & CHUNK_MASK] = row;
+				ids = ids.plus(row.name, id);
+			}
+		}
+		
+		return new GraphVersion(graph.getVersion(), chunks, townCount, graph.getEdgeCount(), ids);
+	}
+	
+	/**
+	 * Makes the version following a batch of changes, copying the rows of the towns the batch touched
+	 * from the graph and sharing the rest with this version. The graph must not have changed since the batch.
+	 * @param graph graph the batch changed
+	 * @param events the changes of the batch, none of them GRAPH_REPLACED
+	 * @param version graph version after the changes
+	 * @return the next version
+	 */
+	GraphVersion next(Graph graph, List<GraphEvent> events, long version)
+	{
+		int newTownCount = graph.getTownIdBound();
+		TownRow[][] newChunks = new TownRow[chunkCount(newTownCount)][];
+		System.arraycopy(chunks, 0, newChunks, 0, Math.min(chunks.length, newChunks.length));
+		for (int c = chunks.length; c < newChunks.length; c++)
+		{
+			newChunks[c] = new TownRow[CHUNK_SIZE];
+		}
+		
+		//the towns added or removed, and both towns of each road added or removed
+		ArrayList<Town> touched = new ArrayList<Town>(events.size() * 2);
+		for (GraphEvent event : events)
+		{
+			if (event.getTown() != null)
+			{
+				touched.add(event.getTown());
+			}
+			else if (event.getRoad() != null)
+			{
+				touched.add(event.getRoad().getSource());
+				touched.add(event.getRoad().getDestination());
+			}
+		}
+		
+		//the names of the old rows leave the map before the new rows enter it, so a town removed and
+		//added again under another id in the same batch keeps its new id
+		PersistentHashMap<String, Integer> newIds = ids;
+		for (Town town : touched)
+		{
+			int id = town.getId();
+			TownRow row = id < townCount ? getRow(id) : null;
+			if (row != null && Integer.valueOf(id).equals(newIds.get(row.name)))
+			{
+				newIds = newIds.minus(row.name);
+			}
+		}
+		for (Town town : touched)
+		{
+			int id = town.getId();
+			int c = id >>> CHUNK_BITS;
+			if (c < chunks.length && newChunks[c] == chunks[c])
+			{
+				newChunks[c] = chunks[c].clone();
+			}
+			
+			TownRow row = TownRow.of(graph.getTownById(id));
+			newChunks[c][id & CHUNK_MASK] = row;
+			if (row != null)
+			{
+				newIds = newIds.plus(row.name, id);
+			}
+		}
+		
+		return new GraphVersion(version, newChunks, newTownCount, graph.getEdgeCount(), newIds);
+	}
+	
+	/**
+	 * Getter method for the graph version this is a copy of
+	 * @return the version
+	 */
+	public long getVersion()
+	{
+		return version;
+	}
+	
+	/**
+	 * Getter method for the number of roads
+	 * @return the road count
+	 */
+	public int getRoadCount()
+	{
+		return roadCount;
+	}
+	
+	/**
+	 * Getter method for the number of towns
+	 * @return the town count
+	 */
+	public int getTownSize()
+	{
+		return ids.getSize();
+	}
+	
+	/**
+	 * Returns the id of a town
+	 * @param name town name
+	 * @return the town id, or -1 if no town has the name
+	 */
+	public int getTownId(String name)
+	{
+		Integer id = name == null ? null : ids.get(name);
+		return id == null ? -1 : id;
+	}
+	
+	/**
+	 * Sees whether a town is in this version
+	 * @param name town name
+	 * @return true if a town has the name
+	 */
+	public boolean containsTown(String name)
+	{
+		return name != null && ids.containsKey(name);
+	}
+	
+	/**
+	 * Returns the number of town ids, some ids may have no town
+	 * @return the bound of the town ids
+	 */
+	public int getTownCount()
+	{
+		return townCount;
+	}
+	
+	/**
+	 * Returns the name of a town
+	 * @param town town id
+	 * @return the town name, or null if no town has the id
+	 */
+	public String getTownName(int town)
+	{
+		TownRow row = getRow(town);
+		return row == null ? null : row.name;
+	}
+	
+	/**
+	 * Returns the number of roads leaving a town
+	 * @param town town id
+	 * @return the degree of the town
+	 */
+	public int getDegree(int town)
+	{
+		TownRow row = getRow(town);
+		return row == null ? 0 : row.targets.length;
+	}
+	
+	/**
+	 * Creates a cursor over the roads leaving a town
+	 * @return a new cursor
+	 */
+	public Cursor getCursor()
+	{
+		return new RowCursor();
+	}
+	
+	/**
+	 * Finds the shortest path between two towns of this version. Each call makes its own search, so any
+	 * number of threads may call it at once.
+	 * @param source name of the starting town
+	 * @param destination name of the ending town
+	 * @return the steps of the path in the format: startTown "via" road "to" endTown weight "mi",
+	 * empty if the towns are the same, unknown or disjoint
+	 */
+	public ArrayList<String> shortestPath(String source, String destination)
+	{
+		return shortestPath(new ShortestPathSearch(this), source, destination);
+	}
+	
+	/**
+	 * Finds the shortest path between two towns of this version with a given search, pointing it at this
+	 * version. The search is not kept, so a thread may reuse one search over every version it queries.
+	 * @param search search used by the calling thread only
+	 * @param source name of the starting town
+	 * @param destination name of the ending town
+	 * @return the steps of the path in the format of shortestPath(String, String)
+	 */
+	ArrayList<String> shortestPath(ShortestPathSearch search, String source, String destination)
+	{
+		ArrayList<String> result = new ArrayList<String>();
+		int from = getTownId(source);
+		int to = getTownId(destination);
+		if (from < 0 || to < 0 || from == to)
+		{
+			return result;
+		}
+		
+		search.setAdjacency(this);
+		if (search.search(from, to))
+		{
+			ArrayStack<String> path = new ArrayStack<String>();
+			int predecessor;
+			for (int current = to; (predecessor = search.getPredecessor(current)) >= 0; current = predecessor)
+			{
+				path.push(getTownName(predecessor) + " via " + search.getLegName(current) + " to " + getTownName(current) + " " + search.getLegWeight(current) + " mi");
+			}
+			result.addAll(path.asList());
+		}
+		return result;
+	}
+	
+	/**
+	 * Finds the length of the shortest path between two towns of this version. Each call makes its own
+	 * search, so any number of threads may call it at once.
+	 * @param source name of the starting town
+	 * @param destination name of the ending town
+	 * @return the distance in miles, 0 if the towns are the same, or -1 if a town is unknown or the towns are disjoint
+	 */
+	public int getDistance(String source, String destination)
+	{
+		return getDistance(new ShortestPathSearch(this), source, destination);
+	}
+	
+	/**
+	 * Finds the length of the shortest path between two towns of this version with a given search, pointing
+	 * it at this version. The search is not kept, so a thread may reuse one search over every version it queries.
+	 * @param search search used by the calling thread only
+	 * @param source name of the starting town
+	 * @param destination name of the ending town
+	 * @return the distance in the format of getDistance(String, String)
+	 */
+	int getDistance(ShortestPathSearch search, String source, String destination)
+	{
+		int from = getTownId(source);
+		int to = getTownId(destination);
+		if (from < 0 || to < 0)
+		{
+			return -1;
+		}
+		else if (from == to)
+		{
+			return 0;
+		}
+		
+		search.setAdjacency(this);
+		search.search(from, to);
+		return search.getDistance(to);
+	}
+	
+	/**
+	 * Method returns the row of a town
+	 * @param town town id
+	 * @return the row, or null if no town has the id
+	 */
+	private TownRow getRow(int town)
+	{
+		if (town < 0 || town >= townCount)
+		{
+			return null;
+		}
+		return chunks[town >>> CHUNK_BITS][town & CHUNK_MASK];
+	}
+	
+	/**
+	 * Method returns the number of chunks holding a number of town ids
+	 * @param townCount bound of the town ids
+	 * @return the chunk count
+	 */
+	private static int chunkCount(int townCount)
+	{
+		return (townCount + CHUNK_MASK) >>> CHUNK_BITS;
+	}
+	
+	/**
+	 * Inner class for the name of a town and the roads leaving it
+	 */
+	private static class TownRow
+	{
+		private final String name;
+		private final int[] targets;
+		private final int[] weights;
+		private final String[] roadNames;
+		
+		private TownRow(String name, int[] targets, int[] weights, String[] roadNames)
+		{
+			this.name = name;
+			this.targets = targets;
+			this.weights = weights;
+			this.roadNames = roadNames;
+		}
+		
+		/**
+		 * Copies the outgoing roads of a town
+		 * @param town town, may be null
+		 * @return the row, or null for no town
+		 */
+		private static TownRow of(Town town)
+		{
+			if (town == null)
+			{
+				return null;
+			}
+			
+			ArrayListWithIterator<Road> roads = town.getOutgoingList();
+			int degree = roads.getLength();
+			int[] targets = new int[degree];
+			int[] weights = new int[degree];
+			String[] roadNames = new String[degree];
+			for (int i = 0; i < degree; i++)
+			{
+				Road road = roads.getEntry(i);
+				targets[i] = road.getOpposite(town).getId();
+				weights[i] = road.getWeight();
+				roadNames[i] = road.getName();
+			}
+			return new TownRow(town.getName(), targets, weights, roadNames);
+		}
+	}
+	
+	/**
+	 * Inner class implementing a cursor over the row of a town
+	 */
+	private class RowCursor implements Cursor
+	{
+		private TownRow row;
+		private int position = -1;
+		
+		public void reset(int town)
+		{
+			row = getRow(town);
+			position = -1;
+		}
+		
+		public boolean next()
+		{
+			return row != null && ++position < row.targets.length;
+		}
+		
+		public int getTarget()
+		{
+			return row.targets[position];
+		}
+		
+		public int getWeight()
+		{
+			return row.weights[position];
+		}
+		
+		public String getRoadName()
+		{
+			return row.roadNames[position];
+		}
+	}
+}
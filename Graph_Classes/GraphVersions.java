@@ -0,0 +1,72 @@
+package Graph_Classes;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import Interfaces.GraphListener;
+
+/**
+ * Class publishing an immutable version of a graph after every batch of changes, for threads that read
+ * the graph while another thread changes it. A reader takes the current version and reads it for as long
+ * as it likes without locking; the changes of a batch, e.g. every road of a removed town, appear in the
+ * next version all at once, never in part.
+ * The listener applies small batches to a copy of the touched towns only; a batch changing a large part of
+ * the graph (e.g. a bulk load) instead copies the whole graph.
+ */
+public class GraphVersions implements GraphListener
+{
+	//batches larger than this share of the towns copy the whole graph
+	private static final int REBUILD_DIVISOR = 8;
+	
+	private final AtomicReference<GraphVersion> current;
+	
+	/**
+	 * Parameterized constructor publishes the first version of a graph and registers with it.
+	 * It must be called on the thread that changes the graph.
+	 * @param graph graph to publish
+	 */
+	public GraphVersions(Graph graph)
+	{
+		current = new AtomicReference<GraphVersion>(GraphVersion.of(graph));
+		graph.addGraphListener(this);
+	}
+	
+	/**
+	 * Publishes the version following a batch of changes
+	 * @param events the changes
+	 * @param version the graph version after the changes
+	 */
+	public void graphChanged(List<GraphEvent> events, long version)
+	{
+		Graph graph = events.get(events.size() - 1).getGraph();
+		GraphVersion previous = current.get();
+		
+		boolean replaced = false;
+		for (GraphEvent event : events)
+		{
+			if (event.getType() == GraphEvent.Type.GRAPH_REPLACED)
+			{
+				replaced = true;
+				break;
+			}
+		}
+		
+		if (replaced || events.size() > previous.getTownSize() / REBUILD_DIVISOR + 64)
+		{
+			current.set(GraphVersion.of(graph));
+		}
+		else
+		{
+			current.set(previous.next(graph, events, version));
+		}
+	}
+	
+	/**
+	 * Returns the latest published version, which never changes; call again for a newer one
+	 * @return the current version
+	 */
+	public GraphVersion current()
+	{
+		return current.get();
+	}
+}
@@ -0,0 +1,586 @@
+package Graph_Classes;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import Interfaces.TownGraphManagerInterface;
+import Logging.Log;
+
+/**
+ * Class implementing an append-only journal of graph mutations (added and deleted towns and roads).
+ * Appends only encode the record into memory; pending records are written and forced to disk together,
+ * either on every append (sync interval 0), every sync interval by a background thread, when a large
+ * batch is pending, or on sync() and close(). Every record carries its length and a CRC32, so a record
+ * torn by a crash is detected, and dropped when the journal is opened again.
+ * Replaying the journal on top of the snapshot or road file the mutations were made against restores the graph.
+ */
+public class MutationJournal implements Closeable
+{
+	private static final int MAGIC = 0x434E4A31; //CNJ1
+	private static final int HEADER_SIZE = 4;
+	//pending bytes that trigger a write without waiting for the sync interval
+	private static final int FLUSH_THRESHOLD = 1 << 16;
+	
+	private static final byte ADD_TOWN = 1;
+	private static final byte ADD_ROAD = 2;
+	private static final byte DELETE_ROAD = 3;
+	private static final byte DELETE_TOWN = 4;
+	
+	private File file;
+	private FileChannel channel;
+	private long syncIntervalMillis;
+	private ByteArrayOutputStream pending;
+	private ByteArrayOutputStream recordBytes;
+	private DataOutputStream record;
+	private CRC32 crc;
+	private final Object flushLock = new Object();
+	private ScheduledExecutorService flusher;
+	private IOException failure;
+	
+	/**
+	 * Constructor
+	 * @param file journal file
+	 * @param channel channel positioned at the end of the valid records
+	 * @param syncIntervalMillis longest time an append waits to be forced to disk, 0 to force every append
+	 */
+	private MutationJournal(File file, FileChannel channel, long syncIntervalMillis)
+	{
+		this.file = file;
+		this.channel = channel;
+		this.syncIntervalMillis = syncIntervalMillis;
+		pending = new ByteArrayOutputStream(FLUSH_THRESHOLD);
+		recordBytes = new ByteArrayOutputStream(256);
+		record = new DataOutputStream(recordBytes);
+		crc = new CRC32();
+		failure = null;
+		
+		if (syncIntervalMillis > 0)
+		{
+			flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "journal-flusher");
+				thread.setDaemon(true);
+				return thread;
+			});
+			flusher.scheduleWithFixedDelay(this::flushInBackground, syncIntervalMillis, syncIntervalMillis, TimeUnit.MILLISECONDS);
+		}
+	}
+	
+	/**
+	 * Opens a journal for appending, creating it if needed. A torn record at the end of an existing journal is truncated.
+	 * @param file journal file
+	 * @param syncIntervalMillis longest time an append waits to be forced to disk, 0 to force every append
+	 * @return the journal
+	 * @throws IOException thrown if the file cannot be opened, is not a journal or has a corrupt record before
+	 * its end, in which case the file is left as it is
+	 */
+	public static MutationJournal open(File file, long syncIntervalMillis) throws IOException
+	{
+		if (syncIntervalMillis < 0)
+		{
+			throw new IllegalArgumentException();
+		}
+		
+		long validEnd = file.exists() && file.length() > 0 ? scan(file, null) : 0;
+		
+		FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try
+		{
+			if (validEnd == 0)
+			{
+				channel.truncate(0);
+				ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(0, MAGIC);
+				channel.write(header, 0);
+				channel.force(true);
+				validEnd = HEADER_SIZE;
+			}
+			else if (validEnd < channel.size())
+			{
+				long tornBytes = channel.size() - validEnd;
+				Log.LOADING.warn(() -> "Dropping " + tornBytes + " bytes of a torn record at the end of journal " + file.getName());
+				channel.truncate(validEnd);
+				channel.force(true);
+			}
+			channel.position(validEnd);
+		}
+		catch (IOException e)
+		{
+			channel.close();
+			throw e;
+		}
+		
+		return new MutationJournal(file, channel, syncIntervalMillis);
+	}
+	
+	/**
+	 * Replays a journal onto a graph manager, in the order the mutations were made.
+	 * Mutations that fail (e.g. when replayed onto a different graph) are logged and skipped.
+	 * @param file journal file, a missing file replays nothing
+	 * @param manager graph manager receiving the mutations
+	 * @return the number of records replayed
+	 * @throws IOException thrown if the file cannot be read, is not a journal or has a corrupt record before its
+	 * end; the records before the corrupt one have been replayed
+	 */
+	public static int replay(File file, TownGraphManagerInterface manager) throws IOException
+	{
+		if (!file.exists() || file.length() == 0)
+		{
+			return 0;
+		}
+		
+		int[] count = {0};
+		scan(file, input -> {
+			count[0]++;
+			apply(input, manager);
+		});
+		
+		Log.LOADING.debug(() -> "Replayed " + count[0] + " mutations from journal " + file.getName());
+		return count[0];
+	}
+	
+	/**
+	 * Appends the addition of a town
+	 * @param name town name
+	 */
+	public void addTown(String name)
+	{
+		synchronized (this)
+		{
+			begin(ADD_TOWN);
+			writeString(name);
+			end();
+		}
+		afterAppend();
+	}
+	
+	/**
+	 * Appends the addition of a road
+	 * @param town1 name of town 1
+	 * @param town2 name of town 2
+	 * @param weight road distance
+	 * @param roadName road name
+	 */
+	public void addRoad(String town1, String town2, int weight, String roadName)
+	{
+		synchronized (this)
+		{
+			begin(ADD_ROAD);
+			writeString(town1);
+			writeString(town2);
+			writeInt(weight);
+			writeString(roadName);
+			end();
+		}
+		afterAppend();
+	}
+	
+	/**
+	 * Appends the deletion of a road
+	 * @param town1 name of town 1
+	 * @param town2 name of town 2
+	 * @param roadName road name
+	 */
+	public void deleteRoad(String town1, String town2, String roadName)
+	{
+		synchronized (this)
+		{
+			begin(DELETE_ROAD);
+			writeString(town1);
+			writeString(town2);
+			writeString(roadName);
+			end();
+		}
+		afterAppend();
+	}
+	
+	/**
+	 * Appends the deletion of a town
+	 * @param name town name
+	 */
+	public void deleteTown(String name)
+	{
+		synchronized (this)
+		{
+			begin(DELETE_TOWN);
+			writeString(name);
+			end();
+		}
+		afterAppend();
+	}
+	
+	/**
+	 * Writes every pending record and forces it to disk
+	 * @throws IOException thrown if the journal cannot be written
+	 */
+	public void sync() throws IOException
+	{
+		synchronized (flushLock)
+		{
+			byte[] batch;
+			synchronized (this)
+			{
+				if (failure != null)
+				{
+					throw failure;
+				}
+				batch = pending.toByteArray();
+				pending.reset();
+			}
+			
+			if (batch.length > 0)
+			{
+				try
+				{
+					ByteBuffer buffer = ByteBuffer.wrap(batch);
+					while (buffer.hasRemaining())
+					{
+						channel.write(buffer);
+					}
+					channel.force(false);
+				}
+				catch (IOException e)
+				{
+					synchronized (this)
+					{
+						failure = e;
+					}
+					throw e;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Syncs the pending records and closes the journal
+	 * @throws IOException thrown if the journal cannot be written
+	 */
+	public void close() throws IOException
+	{
+		if (flusher != null)
+		{
+			flusher.shutdown();
+		}
+		try
+		{
+			sync();
+		}
+		finally
+		{
+			channel.close();
+		}
+	}
+	
+	/**
+	 * Getter method for the journal file
+	 * @return the journal file
+	 */
+	public File getFile()
+	{
+		return file;
+	}
+	
+	/**
+	 * Method starts encoding a record
+	 * @param type record type
+	 */
+	private void begin(byte type)
+	{
+		if (failure != null)
+		{
+			throw new UncheckedIOException("Journal " + file.getName() + " failed", failure);
+		}
+		recordBytes.reset();
+		writeByte(type);
+	}
+	
+	/**
+	 * Method frames the encoded record with its length and CRC and adds it to the pending batch
+	 */
+	private void end()
+	{
+		byte[] payload = recordBytes.toByteArray();
+		crc.reset();
+		crc.update(payload);
+		
+		int length = payload.length;
+		int checksum = (int) crc.getValue();
+		pending.write(length >>> 24);
+		pending.write(length >>> 16);
+		pending.write(length >>> 8);
+		pending.write(length);
+		pending.write(checksum >>> 24);
+		pending.write(checksum >>> 16);
+		pending.write(checksum >>> 8);
+		pending.write(checksum);
+		pending.write(payload, 0, length);
+	}
+	
+	/**
+	 * Method writes the pending batch when the append must be durable or the batch is large
+	 */
+	private void afterAppend()
+	{
+		boolean flushNow;
+		synchronized (this)
+		{
+			flushNow = syncIntervalMillis == 0 || pending.size() >= FLUSH_THRESHOLD;
+		}
+		
+		if (flushNow)
+		{
+			try
+			{
+				sync();
+			}
+			catch (IOException e)
+			{
+				throw new UncheckedIOException("Journal " + file.getName() + " failed", e);
+			}
+		}
+	}
+	
+	/**
+	 * Method run by the background flusher, a failure is kept and reported by the next append or sync
+	 */
+	private void flushInBackground()
+	{
+		try
+		{
+			sync();
+		}
+		catch (IOException e)
+		{
+			Log.LOADING.error(() -> "Journal " + file.getName() + " failed: " + e.getMessage());
+		}
+	}
+	
+	private void writeByte(int value)
+	{
+		try
+		{
+			record.writeByte(value);
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	private void writeInt(int value)
+	{
+		try
+		{
+			record.writeInt(value);
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	private void writeString(String value)
+	{
+		try
+		{
+			record.writeUTF(value);
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	/**
+	 * Interface for the receiver of the records found by scan
+	 */
+	private interface RecordVisitor
+	{
+		public void record(DataInputStream payload) throws IOException;
+	}
+	
+	/**
+	 * Method reads the records of a journal up to its end or a torn record at its end, i.e. a record cut short
+	 * by a crash while it was appended. A record that fails its checksum or length check before the end of the
+	 * file is corrupt rather than torn, and the records after it cannot be trusted to be dropped.
+	 * @param file journal file
+	 * @param visitor receiver of the records, may be null
+	 * @return the byte position after the last valid record
+	 * @throws IOException thrown if the file cannot be read, is not a journal or has a corrupt record before its end
+	 */
+	private static long scan(File file, RecordVisitor visitor) throws IOException
+	{
+		try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16)))
+		{
+			if (input.readInt() != MAGIC)
+			{
+				throw new IOException(file.getName() + " is not a mutation journal.");
+			}
+			
+			long fileLength = file.length();
+			long validEnd = HEADER_SIZE;
+			CRC32 crc = new CRC32();
+			
+			while (true)
+			{
+				byte[] payload;
+				int checksum;
+				try
+				{
+					int length = input.readInt();
+					checksum = input.readInt();
+					if (length <= 0)
+					{
+						//a tail the file grew by but never received is zeros, anything else is damage
+						if (isZero(input))
+						{
+							return validEnd;
+						}
+						throw corrupt(file, validEnd);
+					}
+					else if (validEnd + 8 + length > fileLength)
+					{
+						return validEnd;
+					}
+					payload = new byte[length];
+					input.readFully(payload);
+				}
+				catch (EOFException e)
+				{
+					return validEnd;
+				}
+				
+				crc.reset();
+				crc.update(payload);
+				if ((int) crc.getValue() != checksum)
+				{
+					if (validEnd + 8 + payload.length == fileLength)
+					{
+						return validEnd;
+					}
+					throw corrupt(file, validEnd);
+				}
+				
+				if (visitor != null)
+				{
+					visitor.record(new DataInputStream(new ByteArrayInputStream(payload)));
+				}
+				validEnd += 8 + payload.length;
+			}
+		}
+	}
+	
+	/**
+	 * Method reads the rest of a stream, checking that every byte is zero
+	 * @param input stream
+	 * @return true if every byte left is zero
+	 * @throws IOException thrown if the stream cannot be read
+	 */
+	private static boolean isZero(DataInputStream input) throws IOException
+	{
+		int value;
+		while ((value = input.read()) >= 0)
+		{
+			if (value != 0)
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Method creates the exception for a corrupt record before the end of a journal
+	 * @param file journal file
+	 * @param position byte position of the record
+	 * @return the exception
+	 */
+	private static IOException corrupt(File file, long position)
+	{
+		return new IOException("Corrupt record at byte " + position + " of journal " + file.getName() + ", before its end; the journal was left as it is.");
+	}
+	
+	/**
+	 * Method applies one record to a graph manager
+	 * @param payload payload of the record
+	 * @param manager graph manager receiving the mutation
+	 * @throws IOException thrown if the record cannot be decoded
+	 */
+	private static void apply(DataInputStream payload, TownGraphManagerInterface manager) throws IOException
+	{
+		byte type = payload.readByte();
+		boolean applied;
+		String description = "record of type " + type;
+		
+		try
+		{
+			switch (type)
+			{
+				case ADD_TOWN:
+				{
+					String name = payload.readUTF();
+					description = "add Town " + name;
+					applied = manager.addTown(name) || manager.containsTown(name);
+					break;
+				}
+				case ADD_ROAD:
+				{
+					String town1 = payload.readUTF();
+					String town2 = payload.readUTF();
+					int weight = payload.readInt();
+					String roadName = payload.readUTF();
+					description = "add Road " + roadName + " between " + town1 + " and " + town2;
+					applied = manager.addRoad(town1, town2, weight, roadName);
+					break;
+				}
+				case DELETE_ROAD:
+				{
+					String town1 = payload.readUTF();
+					String town2 = payload.readUTF();
+					String roadName = payload.readUTF();
+					description = "delete Road " + roadName + " between " + town1 + " and " + town2;
+					applied = manager.deleteRoadConnection(town1, town2, roadName);
+					break;
+				}
+				case DELETE_TOWN:
+				{
+					String name = payload.readUTF();
+					description = "delete Town " + name;
+					applied = manager.deleteTown(name);
+					break;
+				}
+				default:
+					throw new IOException("Unknown journal record type " + type + ".");
+			}
+		}
+		catch (IOException e)
+		{
+			throw e;
+		}
+		catch (Exception e)
+		{
+			description += " (" + e + ")";
+			applied = false;
+		}
+		
+		if (!applied)
+		{
+			String skipped = description;
+			Log.LOADING.warn(() -> "Journal replay skipped " + skipped);
+		}
+	}
+}
@@ -0,0 +1,234 @@
+package Graph_Classes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+
+import Data_Structures.SkipListDictionary;
+import Interfaces.GraphListener;
+import Logging.Log;
+
+/**
+ * Class implementing an index of the town and road names of a graph, in name order.
+ * The index listens to the graph and applies small batches of changes one entry at a time; a batch
+ * changing a large part of the graph (e.g. a bulk load) instead marks the index to be rebuilt at the next query.
+ */
+public class NameIndex implements GraphListener
+{
+	//batches larger than this share of the index are not applied entry by entry
+	private static final int REBUILD_DIVISOR = 8;
+	
+	private Graph graph;
+	private SkipListDictionary<String, Town> towns; //<name, town>
+	private SkipListDictionary<String, Integer> roadNames; //<name, number of roads with the name>
+	private int roadCount;
+	private boolean stale;
+	
+	/**
+	 * Parameterized constructor registers the index with a graph
+	 * @param graph graph to index
+	 */
+	public NameIndex(Graph graph)
+	{
+		this.graph = graph;
+		towns = new SkipListDictionary<String, Town>();
+		roadNames = new SkipListDictionary<String, Integer>();
+		stale = true;
+		graph.addGraphListener(this);
+	}
+	
+	/**
+	 * Applies a batch of changes to the index
+	 * @param events the changes
+	 * @param version the graph version after the changes
+	 */
+	public void graphChanged(List<GraphEvent> events, long version)
+	{
+		graph = events.get(events.size() - 1).getGraph();
+		
+		if (stale)
+		{
+			return;
+		}
+		else if (events.size() > (towns.getSize() + roadCount) / REBUILD_DIVISOR + 64)
+		{
+			stale = true;
+			return;
+		}
+		
+		for (GraphEvent event : events)
+		{
+			switch (event.getType())
+			{
+				case TOWN_ADDED:
+					towns.add(event.getTown().getName(), event.getTown());
+					break;
+				case TOWN_REMOVED:
+					towns.remove(event.getTown().getName());
+					break;
+				case ROAD_ADDED:
+					addRoadName(event.getRoad().getName(), 1);
+					break;
+				case ROAD_REMOVED:
+					addRoadName(event.getRoad().getName(), -1);
+					break;
+				case GRAPH_REPLACED:
+					stale = true;
+					return;
+			}
+		}
+	}
+	
+	/**
+	 * Creates an arraylist of all town names in alphabetical order
+	 * @return the town names
+	 */
+	public ArrayList<String> allTowns()
+	{
+		return townsBetween(null, null);
+	}
+	
+	/**
+	 * Creates an arraylist of the town names starting with a prefix, in alphabetical order
+	 * @param prefix beginning of the names
+	 * @return the town names
+	 * @throws NullPointerException if prefix is null
+	 */
+	public ArrayList<String> townsStartingWith(String prefix)
+	{
+		if (prefix == null)
+		{
+			throw new NullPointerException();
+		}
+		refresh();
+		
+		ArrayList<String> names = new ArrayList<String>();
+		Iterator<String> keys = towns.getKeyIterator(prefix, null);
+		while (keys.hasNext())
+		{
+			String name = keys.next();
+			if (!name.startsWith(prefix))
+			{
+				break;
+			}
+			names.add(name);
+		}
+		return names;
+	}
+	
+	/**
+	 * Creates an arraylist of the town names in a range, in alphabetical order
+	 * @param from lowest name, included; null for no lower bound
+	 * @param to highest name, excluded; null for no upper bound
+	 * @return the town names
+	 */
+	public ArrayList<String> townsBetween(String from, String to)
+	{
+		refresh();
+		
+		ArrayList<String> names = new ArrayList<String>(from == null && to == null ? towns.getSize() : 16);
+		Iterator<String> keys = towns.getKeyIterator(from, to);
+		while (keys.hasNext())
+		{
+			names.add(keys.next());
+		}
+		return names;
+	}
+	
+	/**
+	 * Creates an arraylist of the names of all roads in alphabetical order, a name appearing once per road
+	 * @return the road names
+	 */
+	public ArrayList<String> allRoads()
+	{
+		refresh();
+		
+		ArrayList<String> names = new ArrayList<String>(roadCount);
+		Iterator<String> keys = roadNames.getKeyIterator();
+		Iterator<Integer> counts = roadNames.getValueIterator();
+		while (keys.hasNext())
+		{
+			String name = keys.next();
+			for (int i = counts.next(); i > 0; i--)
+			{
+				names.add(name);
+			}
+		}
+		return names;
+	}
+	
+	/**
+	 * Method changes the number of roads with a name
+	 * @param name road name
+	 * @param change roads added, negative for roads removed
+	 */
+	private void addRoadName(String name, int change)
+	{
+		Integer count = roadNames.getValue(name);
+		int newCount = (count == null ? 0 : count) + change;
+		if (newCount > 0)
+		{
+			roadNames.add(name, newCount);
+		}
+		else
+		{
+			roadNames.remove(name);
+		}
+		roadCount += change;
+	}
+	
+	/**
+	 * Method rebuilds the index from the graph if it is stale
+	 */
+	private void refresh()
+	{
+		if (!stale)
+		{
+			return;
+		}
+		
+		towns.clear();
+		roadNames.clear();
+		roadCount = 0;
+		
+		Town[] sortedTowns = new Town[graph.getTownIdBound()];
+		int townCount = 0;
+		HashMap<String, int[]> nameCounts = new HashMap<String, int[]>();
+		for (int id = 0; id < graph.getTownIdBound(); id++)
+		{
+			Town town = graph.getTownById(id);
+			if (town != null)
+			{
+				sortedTowns[townCount++] = town;
+				Iterator<Road> roads = town.getRoadIterator();
+				while (roads.hasNext())
+				{
+					Road road = roads.next();
+					if (road.getSource() == town)
+					{
+						nameCounts.computeIfAbsent(road.getName(), name -> new int[1])[0]++;
+						roadCount++;
+					}
+				}
+			}
+		}
+		
+		Arrays.sort(sortedTowns, 0, townCount);
+		for (int i = 0; i < townCount; i++)
+		{
+			towns.add(sortedTowns[i].getName(), sortedTowns[i]);
+		}
+		
+		String[] sortedNames = nameCounts.keySet().toArray(new String[0]);
+		Arrays.sort(sortedNames);
+		for (String name : sortedNames)
+		{
+			roadNames.add(name, nameCounts.get(name)[0]);
+		}
+		stale = false;
+		
+		Log.GRAPH.debug(() -> "Indexed " + towns.getSize() + " Town names and " + roadNames.getSize() + " Road names");
+	}
+}
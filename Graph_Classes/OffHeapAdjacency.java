@@ -0,0 +1,161 @@
+package Graph_Classes;
+
+import java.io.File;
+import java.io.IOException;
+
+import Interfaces.AdjacencyInterface;
+import Logging.Log;
+
+/**
+ * Class implementing read-only adjacency over the rows of a snapshot, read in place from memory outside
+ * of the Java heap: either a memory-mapped snapshot file, whose pages the operating system shares between
+ * every process mapping it, or a snapshot encoded into direct memory. Only the town and road name of the
+ * current road are decoded onto the heap, and only when asked for. Town ids are the snapshot town indexes.
+ */
+public class OffHeapAdjacency implements AdjacencyInterface
+{
+	private GraphSnapshot snapshot;
+	
+	/**
+	 * Parameterized constructor checks the rows of a snapshot once, so cursors can read them unchecked
+	 * @param snapshot snapshot to read
+	 * @throws IOException thrown if the snapshot is corrupt
+	 */
+	public OffHeapAdjacency(GraphSnapshot snapshot) throws IOException
+	{
+		this.snapshot = snapshot;
+		
+		int townCount = snapshot.getTownCount();
+		int roadNameCount = snapshot.getRoadNameCount();
+		int previous = 0;
+		for (int town = 0; town <= townCount; town++)
+		{
+			int start = snapshot.getRowStart(town);
+			if (start < previous || start > snapshot.getArcCount())
+			{
+				throw new IOException("Corrupt graph snapshot row " + town + ".");
+			}
+			previous = start;
+		}
+		if (previous != snapshot.getArcCount())
+		{
+			throw new IOException("Corrupt graph snapshot rows.");
+		}
+		
+		for (int arc = 0; arc < snapshot.getArcCount(); arc++)
+		{
+			int target = snapshot.getArcTarget(arc);
+			int name = snapshot.getArcNameIndex(arc);
+			if (target < 0 || target >= townCount || name < 0 || name >= roadNameCount)
+			{
+				throw new IOException("Corrupt graph snapshot arc " + arc + ".");
+			}
+		}
+	}
+	
+	/**
+	 * Maps a snapshot file read-only
+	 * @param file snapshot file
+	 * @return the adjacency
+	 * @throws IOException thrown if the file cannot be read or is not a valid snapshot
+	 */
+	public static OffHeapAdjacency map(File file) throws IOException
+	{
+		OffHeapAdjacency adjacency = new OffHeapAdjacency(GraphSnapshot.open(file));
+		Log.GRAPH.debug(() -> "Mapped " + adjacency.snapshot.getRoadCount() + " Roads of " + adjacency.getTownCount() + " Towns from " + file.getName());
+		return adjacency;
+	}
+	
+	/**
+	 * Copies the adjacency of a graph into direct memory
+	 * @param graph graph to copy
+	 * @return the adjacency
+	 * @throws IOException thrown if the graph is too large for one buffer
+	 */
+	public static OffHeapAdjacency of(Graph graph) throws IOException
+	{
+		return new OffHeapAdjacency(GraphSnapshot.offHeap(graph));
+	}
+	
+	/**
+	 * Returns the number of town ids
+	 * @return the number of towns
+	 */
+	public int getTownCount()
+	{
+		return snapshot.getTownCount();
+	}
+	
+	/**
+	 * Returns the name of a town
+	 * @param town town id
+	 * @return the town name
+	 */
+	public String getTownName(int town)
+	{
+		return snapshot.getTownName(town);
+	}
+	
+	/**
+	 * Returns the number of roads leaving a town
+	 * @param town town id
+	 * @return the degree of the town
+	 */
+	public int getDegree(int town)
+	{
+		return snapshot.getRowStart(town + 1) - snapshot.getRowStart(town);
+	}
+	
+	/**
+	 * Getter method for the number of roads
+	 * @return the number of roads
+	 */
+	public int getRoadCount()
+	{
+		return snapshot.getRoadCount();
+	}
+	
+	/**
+	 * Creates a cursor over the roads leaving a town
+	 * @return a new cursor
+	 */
+	public Cursor getCursor()
+	{
+		return new RowCursor();
+	}
+	
+	/**
+	 * Inner class implementing a cursor over the row of a town
+	 */
+	private class RowCursor implements Cursor
+	{
+		private int arc;
+		private int end;
+		
+		public void reset(int town)
+		{
+			arc = snapshot.getRowStart(town) - 1;
+			end = snapshot.getRowStart(town + 1);
+		}
+		
+		public boolean next()
+		{
+			return ++arc < end;
+		}
+		
+		public int getTarget()
+		{
+			return snapshot.getArcTarget(arc);
+		}
+		
+		public int getWeight()
+		{
+			return snapshot.getArcWeight(arc);
+		}
+		
+		public String getRoadName()
+		{
+			return snapshot.getRoadName(snapshot.getArcNameIndex(arc));
+		}
+	}
+}
@@ -0,0 +1,283 @@
+package Graph_Classes;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import Exceptions.RoadFileFormatException;
+import Logging.Log;
+
+/**
+ * Class implementing a parallel loader for large road files.
+ * The file is memory mapped, split into chunks that end on line boundaries, and every chunk is
+ * parsed on its own thread into its own EdgeBuffer. The buffers are returned in file order so
+ * that merging them into a graph gives the same result as a sequential load.
+ */
+public class ParallelRoadFileLoader
+{
+	//chunks per thread, so that a slow chunk does not leave the other threads idle
+	private static final int CHUNKS_PER_THREAD = 4;
+	private static final long MIN_CHUNK_SIZE = 1L << 20;
+	//a single mapping cannot exceed Integer.MAX_VALUE bytes
+	private static final long MAX_CHUNK_SIZE = 1L << 30;
+	
+	private int parallelism;
+	
+	/**
+	 * Default constructor, uses one thread per available processor
+	 */
+	public ParallelRoadFileLoader()
+	{
+		this(Runtime.getRuntime().availableProcessors());
+	}
+	
+	/**
+	 * Parameterized constructor
+	 * @param parallelism number of parsing threads
+	 */
+	public ParallelRoadFileLoader(int parallelism)
+	{
+		if (parallelism < 1)
+		{
+			throw new IllegalArgumentException();
+		}
+		this.parallelism = parallelism;
+	}
+	
+	/**
+	 * Parses a road file in parallel
+	 * @param file road file
+	 * @return the parsed roads, one buffer per chunk in file order
+	 * @throws RoadFileFormatException thrown if a line is malformed, with its line number in the whole file
+	 * @throws IOException thrown if the file cannot be read
+	 * @throws Exception thrown if a parsing thread fails
+	 */
+	public List<EdgeBuffer> load(File file) throws IOException, Exception
+	{
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+		{
+			List<Chunk> chunks = split(channel);
+			
+			Log.LOADING.debug(() -> "Parsing " + file.getName() + " in " + chunks.size() + " chunks on " + parallelism + " threads");
+			
+			ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, Math.max(1, chunks.size())), runnable -> {
+				Thread thread = new Thread(runnable, "road-file-loader");
+				thread.setDaemon(true);
+				return thread;
+			});
+			
+			try
+			{
+				List<Future<Chunk>> futures = new ArrayList<Future<Chunk>>(chunks.size());
+				for (Chunk chunk : chunks)
+				{
+					futures.add(executor.submit(new ChunkTask(channel, chunk)));
+				}
+				
+				//collects in file order, so the lines of every earlier chunk are counted when a chunk fails
+				List<EdgeBuffer> buffers = new ArrayList<EdgeBuffer>(chunks.size());
+				int linesBefore = 0;
+				for (Future<Chunk> future : futures)
+				{
+					Chunk chunk;
+					try
+					{
+						chunk = future.get();
+					}
+					catch (ExecutionException e)
+					{
+						throw unwrap(e, linesBefore);
+					}
+					buffers.add(chunk.roads);
+					linesBefore += chunk.lineCount;
+				}
+				return buffers;
+			}
+			finally
+			{
+				executor.shutdownNow();
+			}
+		}
+	}
+	
+	/**
+	 * Method splits the file into chunks that each end right after a newline (or at the end of the file)
+	 * @param channel file channel
+	 * @return the chunks in file order
+	 * @throws IOException thrown if the file cannot be read
+	 */
+	private List<Chunk> split(FileChannel channel) throws IOException
+	{
+		long size = channel.size();
+		long chunkSize = Math.max(MIN_CHUNK_SIZE, size / ((long) parallelism * CHUNKS_PER_THREAD) + 1);
+		chunkSize = Math.min(chunkSize, MAX_CHUNK_SIZE);
+		
+		List<Chunk> chunks = new ArrayList<Chunk>();
+		ByteBuffer probe = ByteBuffer.allocate(8192);
+		long start = 0;
+		
+		while (start < size)
+		{
+			long end = Math.min(size, start + chunkSize);
+			if (end < size)
+			{
+				end = lineEnd(channel, end, size, probe);
+			}
+			if (end - start > Integer.MAX_VALUE)
+			{
+				throw new IOException("A line near byte " + start + " is too long to map.");
+			}
+			chunks.add(new Chunk(start, end));
+			start = end;
+		}
+		
+		return chunks;
+	}
+	
+	/**
+	 * Method finds the end of the line containing a position
+	 * @param channel file channel
+	 * @param position position inside a line
+	 * @param size file size
+	 * @param probe buffer for reading
+	 * @return the position after the next newline, or the file size
+	 * @throws IOException thrown if the file cannot be read
+	 */
+	private static long lineEnd(FileChannel channel, long position, long size, ByteBuffer probe) throws IOException
+	{
+		//the byte before position may already end a line
+		position--;
+		
+		while (position < size)
+		{
+			probe.clear();
+			int read = channel.read(probe, position);
+			if (read <= 0)
+			{
+				break;
+			}
+			for (int i = 0; i < read; i++)
+			{
+				if (probe.get(i) == '\n')
+				{
+					return position + i + 1;
+				}
+			}
+			position += read;
+		}
+		
+		return size;
+	}
+	
+	/**
+	 * Method turns the failure of a chunk into the exception reported by load
+	 * @param e failure of a chunk
+	 * @param linesBefore number of lines in the earlier chunks
+	 * @return the exception to throw
+	 */
+	private static Exception unwrap(ExecutionException e, int linesBefore)
+	{
+		Throwable cause = e.getCause();
+		
+		if (cause instanceof RoadFileFormatException)
+		{
+			RoadFileFormatException formatException = (RoadFileFormatException) cause;
+			return new RoadFileFormatException(formatException.getError(), linesBefore + formatException.getLineNumber());
+		}
+		else if (cause instanceof Exception)
+		{
+			return (Exception) cause;
+		}
+		else
+		{
+			return e;
+		}
+	}
+	
+	/**
+	 * Inner class for a chunk of the file and its parsed roads
+	 */
+	private static class Chunk
+	{
+		private long start;
+		private long end;
+		private EdgeBuffer roads;
+		private int lineCount;
+		
+		private Chunk(long start, long end)
+		{
+			this.start = start;
+			this.end = end;
+		}
+	}
+	
+	/**
+	 * Inner class for the task parsing one chunk, with its own parser so names are interned per thread
+	 */
+	private static class ChunkTask implements Callable<Chunk>
+	{
+		private FileChannel channel;
+		private Chunk chunk;
+		
+		private ChunkTask(FileChannel channel, Chunk chunk)
+		{
+			this.channel = channel;
+			this.chunk = chunk;
+		}
+		
+		public Chunk call() throws Exception
+		{
+			MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, chunk.start, chunk.end - chunk.start);
+			
+			//roughly 24 bytes per line in typical road files
+			EdgeBuffer roads = new EdgeBuffer((int) Math.min(1 << 20, (chunk.end - chunk.start) / 24 + 1));
+			RoadFileParser parser = new RoadFileParser();
+			parser.parse(new MappedInputStream(mapped), roads);
+			
+			chunk.roads = roads;
+			chunk.lineCount = parser.getLineCount();
+			return chunk;
+		}
+	}
+	
+	/**
+	 * Inner class reading a mapped buffer through the InputStream the parser consumes,
+	 * every read is a bulk copy out of the mapping
+	 */
+	private static class MappedInputStream extends InputStream
+	{
+		private ByteBuffer buffer;
+		
+		private MappedInputStream(ByteBuffer buffer)
+		{
+			this.buffer = buffer;
+		}
+		
+		public int read()
+		{
+			return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+		}
+		
+		public int read(byte[] bytes, int offset, int length)
+		{
+			if (!buffer.hasRemaining())
+			{
+				return -1;
+			}
+			int count = Math.min(length, buffer.remaining());
+			buffer.get(bytes, offset, count);
+			return count;
+		}
+	}
+}
@@ -3,12 +3,20 @@
  */
 package Graph_Classes;
 
+import Logging.Log;
+
 public class Road implements Comparable<Road>
 {
 	private Town source;
 	private Town destination;
 	private int distance;
 	private String name;
+	private int id; //stable id of this road in its graph, -1 if not in a graph
+	private boolean oneWay; //only travelled from source to destination
+	private int sourceOutgoing; //position in the outgoing list of the source, -1 if not in it
+	private int sourceIncoming; //position in the incoming list of the source
+	private int destinationOutgoing; //position in the outgoing list of the destination
+	private int destinationIncoming; //position in the incoming list of the destination
 	
 	/**
 	 * Parameterized Constructor for weighted (edges) roads
@@ -19,11 +27,27 @@ public class Road implements Comparable<Road>
 	 */
 	public Road(Town source, Town destination, int distance, String name)
 	{
-		System.out.println("Creating Road from " + source + " to " + destination + " named " + name);
+		Log.GRAPH.trace(() -> "Creating Road from " + source + " to " + destination + " named " + name);
 		this.source = source;
 		this.destination = destination;
 		this.distance = distance;
 		this.name = name;
+		id = -1;
+		clearPositions();
+	}
+	
+	/**
+	 * Parameterized Constructor for weighted (edges) roads that may be one-way
+	 * @param source source town
+	 * @param destination destination town
+	 * @param distance distance between town
+	 * @param name name of road
+	 * @param oneWay true if the road only goes from the source to the destination
+	 */
+	public Road(Town source, Town destination, int distance, String name, boolean oneWay)
+	{
+		this(source, destination, distance, name);
+		this.oneWay = oneWay;
 	}
 	
 	/**
@@ -38,6 +62,21 @@ public class Road implements Comparable<Road>
 		this.destination = destination;
 		this.distance = 1;
 		this.name = name;
+		id = -1;
+		clearPositions();
+	}
+	
+	/**
+	 * Packs two town ids into a canonical key, the smaller id in the high half, so both directions give the same key
+	 * @param town1 id of one town
+	 * @param town2 id of the other town
+	 * @return the key of the pair of towns
+	 */
+	public static long key(int town1, int town2)
+	{
+		int low = Math.min(town1, town2);
+		int high = Math.max(town1, town2);
+		return ((long) low << 32) | (high & 0xFFFFFFFFL);
 	}
 
 	/**
@@ -112,6 +151,108 @@ public class Road implements Comparable<Road>
 		this.name = name;
 	}
 	
+	/**
+	 * Getter method for the road id, assigned by the graph holding this road and never reused by it
+	 * @return the road id, or -1 if this road was never added to a graph
+	 */
+	public int getId()
+	{
+		return id;
+	}
+	
+	/**
+	 * Setter method for the road id
+	 * @param id road id
+	 */
+	void setId(int id)
+	{
+		this.id = id;
+	}
+	
+	/**
+	 * Returns the position of this road in an adjacency list of one of its towns, so the road can be
+	 * unlinked from the list without searching it
+	 * @param town source or destination of this road
+	 * @param outgoing true for the outgoing list of the town, false for its incoming list
+	 * @return the position, or -1 if this road is not in the list
+	 */
+	int getPosition(Town town, boolean outgoing)
+	{
+		if (town == source)
+		{
+			return outgoing ? sourceOutgoing : sourceIncoming;
+		}
+		return outgoing ? destinationOutgoing : destinationIncoming;
+	}
+	
+	/**
+	 * Records the position of this road in an adjacency list of one of its towns
+	 * @param town source or destination of this road
+	 * @param outgoing true for the outgoing list of the town, false for its incoming list
+	 * @param position position in the list, or -1 once removed from it
+	 */
+	void setPosition(Town town, boolean outgoing, int position)
+	{
+		if (town == source)
+		{
+			if (outgoing)
+			{
+				sourceOutgoing = position;
+			}
+			else
+			{
+				sourceIncoming = position;
+			}
+		}
+		else if (outgoing)
+		{
+			destinationOutgoing = position;
+		}
+		else
+		{
+			destinationIncoming = position;
+		}
+	}
+	
+	/**
+	 * Method forgets the positions of this road in adjacency lists
+	 */
+	private void clearPositions()
+	{
+		sourceOutgoing = -1;
+		sourceIncoming = -1;
+		destinationOutgoing = -1;
+		destinationIncoming = -1;
+	}
+	
+	/**
+	 * Getter method for the canonical key of this road, the pair of its town ids in increasing order
+	 * @return the key of the towns of this road
+	 */
+	public long getKey()
+	{
+		return key(source.getId(), destination.getId());
+	}
+	
+	/**
+	 * Getter method for the direction of the road
+	 * @return true if the road only goes from the source to the destination, false if it goes both ways
+	 */
+	public boolean isOneWay()
+	{
+		return oneWay;
+	}
+	
+	/**
+	 * Returns the town at the other end of this road
+	 * @param town one of the towns of this road
+	 * @return the destination if the town is the source, otherwise the source
+	 */
+	public Town getOpposite(Town town)
+	{
+		return town == source ? destination : source;
+	}
+	
 	/**
 	 * Method determines if this road (edge) contains a specific town (vertex)
 	 * @param town town
@@ -123,12 +264,16 @@ public class Road implements Comparable<Road>
 	}
 	
 	/**
-	 * Hash code producing method
-	 * @return the hash code for the town name
+	 * Hash code producing method, on the key of the town ids, the same in both directions as roads are equal
+	 * in both directions. A graph gives each town name one id, so the roads of a graph hash consistently with
+	 * equals without hashing the town names.
+	 * @return the hash code for the pair of town ids
 	 */
 	public int hashCode()
 	{
-		return name.hashCode();
+		//mixes the key, consecutive ids would otherwise fill only a few buckets
+		long pair = getKey() * 0x9E3779B97F4A7C15L;
+		return (int) (pair ^ (pair >>> 32));
 	}
 	
 	/**
@@ -138,7 +283,11 @@ public class Road implements Comparable<Road>
 	 */
 	public boolean equals(Object o2)
 	{
-		if (o2 == null || getClass() != o2.getClass())
+		if (this == o2)
+		{
+			return true;
+		}
+		else if (o2 == null || getClass() != o2.getClass())
 		{
 			return false;
 		}
@@ -165,6 +314,6 @@ public class Road implements Comparable<Road>
 	 */
 	public String toString()
 	{
-		return "Source: " + source + ". " + "Destination: " + destination + ". " + "Distance: " + distance + ". " + "Road Name: " + name + ". ";
+		return "Source: " + source + ". " + "Destination: " + destination + ". " + "Distance: " + distance + ". " + "Road Name: " + name + ". " + (oneWay ? "One-way. " : "");
 	}
 }
@@ -0,0 +1,187 @@
+package Graph_Classes;
+
+import java.util.HashMap;
+
+import Data_Structures.LongIntHashMap;
+
+/**
+ * Class representing the difference between two versions of a road file.
+ * Roads are identified by their pair of towns in either order, the same pair that addEdge refuses to
+ * connect twice; a road whose name or distance changed is reported as changed. As in a load, the first
+ * line for a pair wins.
+ */
+public class RoadFileDiff
+{
+	private EdgeBuffer addedRoads;
+	private EdgeBuffer removedRoads;
+	private EdgeBuffer changedRoads;
+	private EdgeBuffer replacedRoads; //the changed roads as they were, in the same order
+	
+	/**
+	 * Constructor
+	 */
+	private RoadFileDiff()
+	{
+		addedRoads = new EdgeBuffer();
+		removedRoads = new EdgeBuffer();
+		changedRoads = new EdgeBuffer();
+		replacedRoads = new EdgeBuffer();
+	}
+	
+	/**
+	 * Computes the difference between two versions of a road file
+	 * @param previous roads of the old version
+	 * @param current roads of the new version
+	 * @return the difference
+	 */
+	public static RoadFileDiff compute(EdgeBuffer previous, EdgeBuffer current)
+	{
+		RoadFileDiff diff = new RoadFileDiff();
+		
+		//numbers the town names so a road is identified by a pair of ints
+		HashMap<String, Integer> townNumbers = new HashMap<String, Integer>();
+		
+		LongIntHashMap previousRoads = new LongIntHashMap(previous.size(), -1); //<town pair, record>
+		boolean[] first = new boolean[previous.size()];
+		for (int i = 0; i < previous.size(); i++)
+		{
+			long key = key(previous, i, townNumbers);
+			if (!previousRoads.containsKey(key))
+			{
+				previousRoads.put(key, i);
+				first[i] = true;
+			}
+		}
+		
+		boolean[] kept = new boolean[previous.size()];
+		LongIntHashMap currentRoads = new LongIntHashMap(current.size(), -1);
+		for (int i = 0; i < current.size(); i++)
+		{
+			long key = key(current, i, townNumbers);
+			if (currentRoads.containsKey(key))
+			{
+				continue;
+			}
+			currentRoads.put(key, i);
+			
+			int old = previousRoads.get(key);
+			if (old < 0)
+			{
+				copy(current, i, diff.addedRoads);
+			}
+			else
+			{
+				kept[old] = true;
+				if (previous.getMiles(old) != current.getMiles(i) || !previous.getRoadName(old).equals(current.getRoadName(i)))
+				{
+					copy(current, i, diff.changedRoads);
+					copy(previous, old, diff.replacedRoads);
+				}
+			}
+		}
+		
+		for (int old = 0; old < previous.size(); old++)
+		{
+			if (first[old] && !kept[old])
+			{
+				copy(previous, old, diff.removedRoads);
+			}
+		}
+		
+		return diff;
+	}
+	
+	/**
+	 * Getter method for the roads only in the new version
+	 * @return the added roads
+	 */
+	public EdgeBuffer getAddedRoads()
+	{
+		return addedRoads;
+	}
+	
+	/**
+	 * Getter method for the roads only in the old version
+	 * @return the removed roads, as they were in the old version
+	 */
+	public EdgeBuffer getRemovedRoads()
+	{
+		return removedRoads;
+	}
+	
+	/**
+	 * Getter method for the roads whose name or distance changed
+	 * @return the changed roads, as they are in the new version
+	 */
+	public EdgeBuffer getChangedRoads()
+	{
+		return changedRoads;
+	}
+	
+	/**
+	 * Getter method for the old version of the roads whose name or distance changed
+	 * @return the changed roads, as they were in the old version, in the order of getChangedRoads
+	 */
+	public EdgeBuffer getReplacedRoads()
+	{
+		return replacedRoads;
+	}
+	
+	/**
+	 * Determines if the two versions have the same roads
+	 * @return true if nothing changed
+	 */
+	public boolean isEmpty()
+	{
+		return addedRoads.size() == 0 && removedRoads.size() == 0 && changedRoads.size() == 0;
+	}
+	
+	/**
+	 * toString method returns the size of the difference
+	 * @return String containing the number of added, removed and changed roads
+	 */
+	public String toString()
+	{
+		return addedRoads.size() + " added, " + removedRoads.size() + " removed, " + changedRoads.size() + " changed Roads";
+	}
+	
+	/**
+	 * Method builds the identity of a road from the numbers of its towns
+	 * @param roads road records
+	 * @param index record index
+	 * @param townNumbers numbers of the town names seen so far, extended with new names
+	 * @return the key of the pair of towns, the same for both orders
+	 */
+	private static long key(EdgeBuffer roads, int index, HashMap<String, Integer> townNumbers)
+	{
+		return Road.key(number(roads.getSource(index), townNumbers), number(roads.getDestination(index), townNumbers));
+	}
+	
+	/**
+	 * Method numbers a town name
+	 * @param name town name
+	 * @param townNumbers numbers of the town names seen so far, extended with new names
+	 * @return the number of the name
+	 */
+	private static int number(String name, HashMap<String, Integer> townNumbers)
+	{
+		Integer number = townNumbers.get(name);
+		if (number == null)
+		{
+			number = townNumbers.size();
+			townNumbers.put(name, number);
+		}
+		return number;
+	}
+	
+	/**
+	 * Method copies a record to another buffer
+	 * @param from buffer holding the record
+	 * @param index record index
+	 * @param to buffer receiving the record
+	 */
+	private static void copy(EdgeBuffer from, int index, EdgeBuffer to)
+	{
+		to.road(from.getRoadName(index), from.getMiles(index), from.getSource(index), from.getDestination(index));
+	}
+}
@@ -0,0 +1,347 @@
+package Graph_Classes;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import Exceptions.RoadFileFormatException;
+
+/**
+ * Class implementing a streaming parser for road files.
+ * Each line has the format RoadName,miles;TownA;TownB
+ * The input is read in large blocks and every line is tokenized in a single pass over its bytes,
+ * without a Scanner or regular expressions. Repeated town and road names are decoded once and
+ * the same String is handed out for every later occurrence.
+ */
+public class RoadFileParser
+{
+	/**
+	 * Interface implemented by the receiver of the parsed roads
+	 */
+	public interface RoadHandler
+	{
+		/**
+		 * Called once per road line, in file order
+		 * @param roadName name of the road
+		 * @param miles distance of the road
+		 * @param sourceTown name of the first town
+		 * @param destinationTown name of the second town
+		 * @throws Exception thrown if the road cannot be accepted
+		 */
+		public void road(String roadName, int miles, String sourceTown, String destinationTown) throws Exception;
+	}
+	
+	private static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+	
+	private NameTable names;
+	private int lineNumber;
+	private int roadCount;
+	
+	/**
+	 * Default constructor
+	 */
+	public RoadFileParser()
+	{
+		names = new NameTable();
+		lineNumber = 0;
+		roadCount = 0;
+	}
+	
+	/**
+	 * Parses a road file
+	 * @param file road file
+	 * @param handler receiver of the roads
+	 * @return the number of roads parsed
+	 * @throws RoadFileFormatException thrown if a line is malformed
+	 * @throws IOException thrown if the file cannot be read
+	 * @throws Exception thrown by the handler
+	 */
+	public int parse(File file, RoadHandler handler) throws IOException, Exception
+	{
+		try (InputStream input = new FileInputStream(file))
+		{
+			return parse(input, handler);
+		}
+	}
+	
+	/**
+	 * Parses road lines from a stream until its end, the stream is not closed
+	 * @param input stream of road lines
+	 * @param handler receiver of the roads
+	 * @return the number of roads parsed
+	 * @throws RoadFileFormatException thrown if a line is malformed
+	 * @throws IOException thrown if the stream cannot be read
+	 * @throws Exception thrown by the handler
+	 */
+	public int parse(InputStream input, RoadHandler handler) throws IOException, Exception
+	{
+		byte[] buffer = new byte[DEFAULT_BUFFER_SIZE];
+		int lineStart = 0; //first byte of the current line
+		int scanned = 0; //bytes before this index hold no newline of the current line
+		int end = 0; //bytes before this index are valid
+		boolean endOfInput = false;
+		
+		lineNumber = 0;
+		roadCount = 0;
+		
+		while (true)
+		{
+			int newline = indexOf(buffer, scanned, end, (byte) '\n');
+			
+			if (newline >= 0)
+			{
+				parseLine(buffer, lineStart, newline, handler);
+				lineStart = scanned = newline + 1;
+			}
+			else if (endOfInput)
+			{
+				//last line without a line terminator
+				if (lineStart < end)
+				{
+					parseLine(buffer, lineStart, end, handler);
+				}
+				return roadCount;
+			}
+			else
+			{
+				//moves the partial line to the front, growing the buffer for lines longer than it
+				int partialLength = end - lineStart;
+				if (lineStart > 0)
+				{
+					System.arraycopy(buffer, lineStart, buffer, 0, partialLength);
+				}
+				else if (partialLength == buffer.length)
+				{
+					buffer = Arrays.copyOf(buffer, buffer.length * 2);
+				}
+				lineStart = 0;
+				scanned = end = partialLength;
+				
+				int read = input.read(buffer, end, buffer.length - end);
+				if (read < 0)
+				{
+					endOfInput = true;
+				}
+				else
+				{
+					end += read;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Getter method for the number of lines read by the last parse, blank lines included
+	 * @return the number of lines
+	 */
+	public int getLineCount()
+	{
+		return lineNumber;
+	}
+	
+	/**
+	 * Getter method for the number of distinct town and road names seen by this parser
+	 * @return the number of distinct names
+	 */
+	public int getNameCount()
+	{
+		return names.size;
+	}
+	
+	/**
+	 * Method tokenizes one line and passes the road to the handler
+	 * @param bytes buffer holding the line
+	 * @param from first byte of the line
+	 * @param to index after the last byte of the line, excluding the newline
+	 * @param handler receiver of the road
+	 * @throws Exception thrown if the line is malformed or by the handler
+	 */
+	private void parseLine(byte[] bytes, int from, int to, RoadHandler handler) throws Exception
+	{
+		lineNumber++;
+		
+		//windows line endings and a byte order mark on the first line
+		if (to > from && bytes[to - 1] == '\r')
+		{
+			to--;
+		}
+		if (lineNumber == 1 && to - from >= 3 && bytes[from] == (byte) 0xEF && bytes[from + 1] == (byte) 0xBB && bytes[from + 2] == (byte) 0xBF)
+		{
+			from += 3;
+		}
+		
+		//blank lines are skipped
+		if (from == to)
+		{
+			return;
+		}
+		
+		//road name
+		int comma = indexOf(bytes, from, to, (byte) ',');
+		if (comma < 0)
+		{
+			throw new RoadFileFormatException("expected ',' after the road name", lineNumber);
+		}
+		else if (comma == from)
+		{
+			throw new RoadFileFormatException("missing road name", lineNumber);
+		}
+		
+		//miles
+		int i = skipSpaces(bytes, comma + 1, to);
+		int digitsStart = i;
+		long miles = 0;
+		while (i < to && bytes[i] >= '0' && bytes[i] <= '9')
+		{
+			miles = miles * 10 + (bytes[i] - '0');
+			if (miles > Integer.MAX_VALUE)
+			{
+				throw new RoadFileFormatException("distance is too large", lineNumber);
+			}
+			i++;
+		}
+		if (i == digitsStart)
+		{
+			throw new RoadFileFormatException("expected the distance in miles after ','", lineNumber);
+		}
+		i = skipSpaces(bytes, i, to);
+		if (i == to || bytes[i] != ';')
+		{
+			throw new RoadFileFormatException("expected ';' after the distance", lineNumber);
+		}
+		
+		//towns
+		int sourceStart = i + 1;
+		int semicolon = indexOf(bytes, sourceStart, to, (byte) ';');
+		if (semicolon < 0)
+		{
+			throw new RoadFileFormatException("expected ';' between the two towns", lineNumber);
+		}
+		else if (semicolon == sourceStart || semicolon + 1 == to)
+		{
+			throw new RoadFileFormatException("missing town name", lineNumber);
+		}
+		
+		handler.road(names.get(bytes, from, comma), (int) miles, names.get(bytes, sourceStart, semicolon), names.get(bytes, semicolon + 1, to));
+		roadCount++;
+	}
+	
+	/**
+	 * Method finds the first occurrence of a byte in a range
+	 * @param bytes buffer
+	 * @param from first index searched
+	 * @param to index after the last index searched
+	 * @param target byte to find
+	 * @return the index of the byte, or -1 if not found
+	 */
+	private static int indexOf(byte[] bytes, int from, int to, byte target)
+	{
+		for (int i = from; i < to; i++)
+		{
+			if (bytes[i] == target)
+			{
+				return i;
+			}
+		}
+		return -1;
+	}
+	
+	/**
+	 * Method skips spaces and tabs
+	 * @param bytes buffer
+	 * @param from first index
+	 * @param to index after the last index
+	 * @return the index of the first other byte, or to
+	 */
+	private static int skipSpaces(byte[] bytes, int from, int to)
+	{
+		while (from < to && (bytes[from] == ' ' || bytes[from] == '\t'))
+		{
+			from++;
+		}
+		return from;
+	}
+	
+	/**
+	 * Inner class implementing an open addressing table of decoded names keyed by their UTF-8 bytes,
+	 * so a name is only copied and decoded the first time it is seen
+	 */
+	private static class NameTable
+	{
+		private byte[][] keys;
+		private String[] values;
+		private int[] hashes;
+		private int size;
+		
+		private NameTable()
+		{
+			keys = new byte[1024][];
+			values = new String[1024];
+			hashes = new int[1024];
+			size = 0;
+		}
+		
+		private String get(byte[] bytes, int from, int to)
+		{
+			int hash = 1;
+			for (int i = from; i < to; i++)
+			{
+				hash = 31 * hash + bytes[i];
+			}
+			hash ^= hash >>> 16;
+			
+			int mask = keys.length - 1;
+			int slot = hash & mask;
+			while (keys[slot] != null)
+			{
+				if (hashes[slot] == hash && Arrays.equals(keys[slot], 0, keys[slot].length, bytes, from, to))
+				{
+					return values[slot];
+				}
+				slot = (slot + 1) & mask;
+			}
+			
+			byte[] key = Arrays.copyOfRange(bytes, from, to);
+			String value = new String(key, StandardCharsets.UTF_8);
+			keys[slot] = key;
+			values[slot] = value;
+			hashes[slot] = hash;
+			
+			if (++size * 2 > keys.length)
+			{
+				grow();
+			}
+			return value;
+		}
+		
+		private void grow()
+		{
+			byte[][] oldKeys = keys;
+			String[] oldValues = values;
+			int[] oldHashes = hashes;
+			
+			keys = new byte[oldKeys.length * 2][];
+			values = new String[oldKeys.length * 2];
+			hashes = new int[oldKeys.length * 2];
+			int mask = keys.length - 1;
+			
+			for (int i = 0; i < oldKeys.length; i++)
+			{
+				if (oldKeys[i] != null)
+				{
+					int slot = oldHashes[i] & mask;
+					while (keys[slot] != null)
+					{
+						slot = (slot + 1) & mask;
+					}
+					keys[slot] = oldKeys[i];
+					values[slot] = oldValues[i];
+					hashes[slot] = oldHashes[i];
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,177 @@
+package Graph_Classes;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.function.Consumer;
+
+import Exceptions.RoadFileFormatException;
+import Logging.Log;
+
+/**
+ * Class implementing a watcher of a road file. When the file is created or modified, it is parsed again
+ * and compared with the version parsed before, and only the difference is handed to the receiver.
+ * A version that does not parse (e.g. a file saved halfway through an edit) is skipped, and the next
+ * change is compared with the last good version.
+ */
+public class RoadFileWatcher implements Closeable
+{
+	//waits for a burst of modification events to settle before parsing
+	private static final long SETTLE_MILLIS = 200;
+	
+	private File file;
+	private EdgeBuffer loaded;
+	private Consumer<RoadFileDiff> receiver;
+	private WatchService watchService;
+	private Thread thread;
+	
+	/**
+	 * Parameterized constructor
+	 * @param file road file
+	 * @param loaded roads of the version of the file that is loaded
+	 * @param receiver receiver of the differences, called on the watcher thread
+	 */
+	public RoadFileWatcher(File file, EdgeBuffer loaded, Consumer<RoadFileDiff> receiver)
+	{
+		this.file = file.getAbsoluteFile();
+		this.loaded = loaded;
+		this.receiver = receiver;
+	}
+	
+	/**
+	 * Starts watching the file on a daemon thread
+	 * @throws IOException thrown if the directory of the file cannot be watched
+	 */
+	public synchronized void start() throws IOException
+	{
+		if (thread != null)
+		{
+			throw new IllegalStateException("Watcher already started.");
+		}
+		
+		watchService = FileSystems.getDefault().newWatchService();
+		file.getParentFile().toPath().register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+		
+		thread = new Thread(this::watch, "road-file-watcher");
+		thread.setDaemon(true);
+		thread.start();
+	}
+	
+	/**
+	 * Parses the file and hands the difference with the last good version to the receiver
+	 * @return the difference, or null if the file does not parse
+	 * @throws IOException thrown if the file cannot be read
+	 */
+	public synchronized RoadFileDiff reload() throws IOException
+	{
+		EdgeBuffer current = new EdgeBuffer(loaded.size() + 16);
+		try
+		{
+			new RoadFileParser().parse(file, current);
+		}
+		catch (RoadFileFormatException e)
+		{
+			Log.LOADING.warn(() -> "Not reloading " + file.getName() + ": " + e.getMessage());
+			return null;
+		}
+		catch (IOException e)
+		{
+			throw e;
+		}
+		catch (Exception e)
+		{
+			throw new IOException(e);
+		}
+		
+		RoadFileDiff diff = RoadFileDiff.compute(loaded, current);
+		Log.LOADING.debug(() -> "Reloading " + file.getName() + ": " + diff);
+		
+		if (!diff.isEmpty())
+		{
+			receiver.accept(diff);
+		}
+		loaded = current;
+		return diff;
+	}
+	
+	/**
+	 * Stops watching the file
+	 * @throws IOException thrown if the watch service cannot be closed
+	 */
+	public synchronized void close() throws IOException
+	{
+		if (watchService != null)
+		{
+			watchService.close();
+		}
+	}
+	
+	/**
+	 * Method run by the watcher thread
+	 */
+	private void watch()
+	{
+		Path name = file.toPath().getFileName();
+		
+		try
+		{
+			while (true)
+			{
+				WatchKey key = watchService.take();
+				boolean changed = containsFile(key, name);
+				key.reset();
+				
+				if (changed)
+				{
+					//lets the writer finish, then drops the events of the same burst
+					Thread.sleep(SETTLE_MILLIS);
+					WatchKey more;
+					while ((more = watchService.poll()) != null)
+					{
+						more.pollEvents();
+						more.reset();
+					}
+					
+					try
+					{
+						reload();
+					}
+					catch (IOException | RuntimeException e)
+					{
+						Log.LOADING.error(() -> "Reloading " + file.getName() + " failed: " + e);
+					}
+				}
+			}
+		}
+		catch (ClosedWatchServiceException | InterruptedException e)
+		{
+			Log.LOADING.debug(() -> "Stopped watching " + file.getName());
+		}
+	}
+	
+	/**
+	 * Method determines if the events of a key concern the file
+	 * @param key signalled key
+	 * @param name file name
+	 * @return true if the file was created or modified
+	 */
+	private static boolean containsFile(WatchKey key, Path name)
+	{
+		boolean found = false;
+		for (WatchEvent<?> event : key.pollEvents())
+		{
+			if (name.equals(event.context()))
+			{
+				found = true;
+			}
+		}
+		return found;
+	}
+}
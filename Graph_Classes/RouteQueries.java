@@ -0,0 +1,156 @@
+package Graph_Classes;
+
+import java.util.ArrayList;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Class answering path and distance queries asynchronously on an executor, over the published versions
+ * of a graph, so queries never wait for or interfere with the thread changing the graph.
+ * Identical queries are coalesced while one is in flight: a burst of requests for the same pair of towns
+ * runs one search, and every request is completed with its result.
+ */
+public class RouteQueries
+{
+	private final GraphVersions versions;
+	private final Executor executor;
+	private final ConcurrentHashMap<Query, CompletableFuture<?>> inFlight;
+	//one search per executor thread, pointed at the version each query reads; kept here rather than in
+	//the versions, which would otherwise stay reachable from the threads
+	private final ThreadLocal<ShortestPathSearch> searches;
+	
+	/**
+	 * Parameterized constructor
+	 * @param versions published versions of the graph to query
+	 * @param executor executor running the searches
+	 */
+	public RouteQueries(GraphVersions versions, Executor executor)
+	{
+		if (versions == null || executor == null)
+		{
+			throw new NullPointerException();
+		}
+		this.versions = versions;
+		this.executor = executor;
+		inFlight = new ConcurrentHashMap<Query, CompletableFuture<?>>();
+		searches = ThreadLocal.withInitial(() -> new ShortestPathSearch(versions.current()));
+	}
+	
+	/**
+	 * Finds the shortest path between two towns in the background
+	 * @param town1 name of the starting town
+	 * @param town2 name of the ending town
+	 * @return a future completed with the path in the format of TownGraphManager.getPath, a list of its own
+	 * for each caller
+	 */
+	public CompletableFuture<ArrayList<String>> getPath(String town1, String town2)
+	{
+		CompletableFuture<ArrayList<String>> path = submit(new Query(true, town1, town2), version -> version.shortestPath(searches.get(), town1, town2));
+		return path.thenApply(steps -> new ArrayList<String>(steps));
+	}
+	
+	/**
+	 * Finds the length of the shortest path between two towns in the background
+	 * @param town1 name of the starting town
+	 * @param town2 name of the ending town
+	 * @return a future completed with the distance in miles, or -1 if a town is unknown or the towns are disjoint
+	 */
+	public CompletableFuture<Integer> getDistance(String town1, String town2)
+	{
+		CompletableFuture<Integer> distance = submit(new Query(false, town1, town2), version -> version.getDistance(searches.get(), town1, town2));
+		return distance.copy();
+	}
+	
+	/**
+	 * Getter method for the number of distinct queries in flight
+	 * @return the in-flight query count
+	 */
+	public int getInFlightCount()
+	{
+		return inFlight.size();
+	}
+	
+	/**
+	 * Method joins the query in flight equal to a query, or starts it on the executor.
+	 * Callers get dependent futures of the shared one, so cancelling or completing theirs cannot affect the others.
+	 * @param <T> result type
+	 * @param query query
+	 * @param answer computes the result over the current version
+	 * @return the shared future of the query
+	 */
+	@SuppressWarnings("unchecked")
+	private <T> CompletableFuture<T> submit(Query query, Function<GraphVersion, T> answer)
+	{
+		CompletableFuture<T> running = (CompletableFuture<T>) inFlight.get(query);
+		if (running != null)
+		{
+			return running;
+		}
+		
+		CompletableFuture<T> started = new CompletableFuture<T>();
+		running = (CompletableFuture<T>) inFlight.putIfAbsent(query, started);
+		if (running != null)
+		{
+			return running;
+		}
+		
+		try
+		{
+			executor.execute(() -> {
+				try
+				{
+					T result = answer.apply(versions.current());
+					inFlight.remove(query, started);
+					started.complete(result);
+				}
+				catch (Throwable e)
+				{
+					inFlight.remove(query, started);
+					started.completeExceptionally(e);
+				}
+			});
+		}
+		catch (RuntimeException e)
+		{
+			//e.g. the executor rejected the search
+			inFlight.remove(query, started);
+			started.completeExceptionally(e);
+		}
+		return started;
+	}
+	
+	/**
+	 * Inner class for the key of a query
+	 */
+	private static class Query
+	{
+		private final boolean path; //a path query, otherwise a distance query
+		private final String town1;
+		private final String town2;
+		
+		private Query(boolean path, String town1, String town2)
+		{
+			this.path = path;
+			this.town1 = town1;
+			this.town2 = town2;
+		}
+		
+		public boolean equals(Object other)
+		{
+			if (!(other instanceof Query))
+			{
+				return false;
+			}
+			Query query = (Query) other;
+			return path == query.path && Objects.equals(town1, query.town1) && Objects.equals(town2, query.town2);
+		}
+		
+		public int hashCode()
+		{
+			return Objects.hash(path, town1, town2);
+		}
+	}
+}
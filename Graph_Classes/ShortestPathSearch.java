@@ -0,0 +1,222 @@
+package Graph_Classes;
+
+import java.util.Arrays;
+
+import Data_Structures.IntArrayList;
+import Data_Structures.IntMinHeap;
+import Data_Structures.VisitedSet;
+import Interfaces.AdjacencyInterface;
+import Logging.Log;
+
+/**
+ * Class implementing Dijkstra's shortest path search over the town ids of an adjacency.
+ * A search keeps its arrays between searches and only resets the towns the previous search reached,
+ * so searching allocates nothing once the arrays are sized. A search is used by one thread at a time.
+ */
+public class ShortestPathSearch
+{
+	private static final int UNREACHED = Integer.MAX_VALUE;
+	
+	private AdjacencyInterface adjacency;
+	private AdjacencyInterface.Cursor cursor;
+	private int[] distances; //UNREACHED where not reached
+	private int[] predecessors; //previous town on the path, -1 for the source
+	private int[] legWeights; //weight of the road from the predecessor
+	private String[] legNames; //name of the road from the predecessor
+	private IntMinHeap queue;
+	private VisitedSet settled;
+	private IntArrayList reached; //towns given a distance by the last search
+	
+	/**
+	 * Parameterized constructor
+	 * @param adjacency adjacency to search
+	 */
+	public ShortestPathSearch(AdjacencyInterface adjacency)
+	{
+		this.adjacency = adjacency;
+		cursor = adjacency.getCursor();
+		
+		int capacity = Math.max(1, adjacency.getTownCount());
+		distances = new int[capacity];
+		Arrays.fill(distances, UNREACHED);
+		predecessors = new int[capacity];
+		legWeights = new int[capacity];
+		legNames = new String[capacity];
+		queue = new IntMinHeap(capacity);
+		settled = new VisitedSet(capacity);
+		reached = new IntArrayList();
+	}
+	
+	/**
+	 * Finds the shortest paths from a town to every town it can reach
+	 * @param source source town id
+	 */
+	public void search(int source)
+	{
+		search(source, -1);
+	}
+	
+	/**
+	 * Finds the shortest path from a town to another, stopping once the other town is settled
+	 * @param source source town id
+	 * @param target target town id, or -1 to search every reachable town
+	 * @return true if the target was reached
+	 */
+	public boolean search(int source, int target)
+	{
+		reset();
+		
+		reach(source, 0, -1, 0, null);
+		queue.offer(source, 0);
+		
+		while (!queue.isEmpty())
+		{
+			int town = queue.poll();
+			settled.add(town);
+			if (town == target)
+			{
+				break;
+			}
+			
+			int cost = distances[town];
+			cursor.reset(town);
+			while (cursor.next())
+			{
+				int neighbor = cursor.getTarget();
+				int distance = cost + cursor.getWeight();
+				if (!settled.contains(neighbor) && distance < distances[neighbor])
+				{
+					reach(neighbor, distance, town, cursor.getWeight(), cursor.getRoadName());
+					queue.offer(neighbor, distance);
+				}
+			}
+		}
+		
+		Log.ROUTING.trace(() -> "Searched from " + adjacency.getTownName(source) + ", reached " + reached.getSize() + " Towns");
+		return target >= 0 && settled.contains(target);
+	}
+	
+	/**
+	 * Determines if the last search found a path to a town.
+	 * After a search with a target, only the target's path is known to be the shortest.
+	 * @param town town id
+	 * @return true if the town was settled
+	 */
+	public boolean isReached(int town)
+	{
+		return town < distances.length && settled.contains(town);
+	}
+	
+	/**
+	 * Getter method for the distance of a town found by the last search
+	 * @param town town id
+	 * @return the distance, or -1 if the town was not reached
+	 */
+	public int getDistance(int town)
+	{
+		return isReached(town) ? distances[town] : -1;
+	}
+	
+	/**
+	 * Getter method for the previous town on the path to a town
+	 * @param town town id
+	 * @return the previous town id, or -1 for the source or a town not reached
+	 */
+	public int getPredecessor(int town)
+	{
+		return isReached(town) ? predecessors[town] : -1;
+	}
+	
+	/**
+	 * Getter method for the weight of the road reaching a town on its path
+	 * @param town town id, reached and not the source
+	 * @return the road weight
+	 */
+	public int getLegWeight(int town)
+	{
+		return legWeights[town];
+	}
+	
+	/**
+	 * Getter method for the name of the road reaching a town on its path
+	 * @param town town id, reached and not the source
+	 * @return the road name
+	 */
+	public String getLegName(int town)
+	{
+		return legNames[town];
+	}
+	
+	/**
+	 * Getter method for the adjacency searched
+	 * @return the adjacency
+	 */
+	public AdjacencyInterface getAdjacency()
+	{
+		return adjacency;
+	}
+	
+	/**
+	 * Setter method for the adjacency searched, e.g. a newer version of the same graph. The arrays are kept
+	 * and grown on the next search if the new adjacency has more town ids.
+	 * @param adjacency adjacency to search
+	 */
+	public void setAdjacency(AdjacencyInterface adjacency)
+	{
+		if (adjacency != this.adjacency)
+		{
+			this.adjacency = adjacency;
+			cursor = adjacency.getCursor();
+		}
+	}
+	
+	/**
+	 * Method records a better path to a town
+	 * @param town town id
+	 * @param distance distance from the source
+	 * @param predecessor previous town id
+	 * @param legWeight weight of the road from the previous town
+	 * @param legName name of the road from the previous town
+	 */
+	private void reach(int town, int distance, int predecessor, int legWeight, String legName)
+	{
+		if (distances[town] == UNREACHED)
+		{
+			reached.add(town);
+		}
+		distances[town] = distance;
+		predecessors[town] = predecessor;
+		legWeights[town] = legWeight;
+		legNames[town] = legName;
+	}
+	
+	/**
+	 * Method clears the towns of the last search and grows the arrays if the adjacency grew
+	 */
+	private void reset()
+	{
+		for (int i = 0; i < reached.getSize(); i++)
+		{
+			int town = reached.get(i);
+			distances[town] = UNREACHED;
+			legNames[town] = null;
+		}
+		reached.clear();
+		queue.clear();
+		settled.clear();
+		
+		int capacity = adjacency.getTownCount();
+		if (capacity > distances.length)
+		{
+			int length = Math.max(capacity, distances.length * 2);
+			int oldLength = distances.length;
+			distances = Arrays.copyOf(distances, length);
+			Arrays.fill(distances, oldLength, length, UNREACHED);
+			predecessors = Arrays.copyOf(predecessors, length);
+			legWeights = Arrays.copyOf(legWeights, length);
+			legNames = Arrays.copyOf(legNames, length);
+			queue.ensureCapacity(length);
+			settled.ensureCapacity(length);
+		}
+	}
+}
@@ -7,9 +7,10 @@ import java.util.Iterator;
 import java.util.NoSuchElementException;
 
 import Data_Structures.LinkedDictionary;
-import Data_Structures.LinkedListWithIterator;
+import Data_Structures.ArrayListWithIterator;
 import Interfaces.DictionaryInterface;
 import Interfaces.StackInterface;
+import Logging.Log;
 
 /**
  * Class for representing a town (as a vector) in a graph
@@ -17,7 +18,9 @@ import Interfaces.StackInterface;
 public class Town implements Comparable<Town>
 {
 	private String name;
-	private LinkedListWithIterator<Road> adjacencyList;
+	private int id; //index of this town in its graph, -1 if not in a graph
+	private ArrayListWithIterator<Road> outgoing; //roads that can be travelled away from this town
+	private ArrayListWithIterator<Road> incoming; //roads that can be travelled to this town
 	private boolean visited;
 	private Town predecessor; //on path
 	private int cost; //on path
@@ -29,9 +32,11 @@ public class Town implements Comparable<Town>
 	 */
 	public Town(String name)
 	{
-		System.out.println("Creating Town " + name);
+		Log.GRAPH.trace(() -> "Creating Town " + name);
 		this.name = name;
-		adjacencyList = new LinkedListWithIterator<Road>();
+		id = -1;
+		outgoing = new ArrayListWithIterator<Road>();
+		incoming = new ArrayListWithIterator<Road>();
 		visited = false;
 		predecessor = null;
 		cost = 0;
@@ -45,7 +50,9 @@ public class Town implements Comparable<Town>
 	public Town(Town templateTown)
 	{
 		this.name = templateTown.getName();
-		adjacencyList = new LinkedListWithIterator<Road>(templateTown.getList());
+		id = -1;
+		outgoing = new ArrayListWithIterator<Road>(templateTown.getOutgoingList());
+		incoming = new ArrayListWithIterator<Road>(templateTown.getIncomingList());
 		visited = false;
 		predecessor = null;
 		cost = 0;
@@ -70,6 +77,24 @@ public class Town implements Comparable<Town>
 		this.name = name;
 	}
 	
+	/**
+	 * Getter method for the town id, a dense index assigned by the graph holding this town
+	 * @return the town id, or -1 if this town was never added to a graph
+	 */
+	public int getId()
+	{
+		return id;
+	}
+	
+	/**
+	 * Setter method for the town id
+	 * @param id town id
+	 */
+	void setId(int id)
+	{
+		this.id = id;
+	}
+	
 	/**
 	 * Getter method for the shortest paths
 	 * @return the shortest paths
@@ -89,21 +114,23 @@ public class Town implements Comparable<Town>
 	}
 	
 	/**
-	 * Getter method for the adjacency list
-	 * @return the adjacency list
+	 * Getter method for the outgoing adjacency list, the roads that can be travelled away from this town.
+	 * A two-way road is in the outgoing and incoming lists of both of its towns, a one-way road is in the
+	 * outgoing list of its source and the incoming list of its destination.
+	 * @return the outgoing adjacency list
 	 */
-	public LinkedListWithIterator<Road> getList()
+	public ArrayListWithIterator<Road> getOutgoingList()
 	{
-		return adjacencyList;
+		return outgoing;
 	}
 	
 	/**
-	 * Setter method for the town adjacency list
-	 * @param list adjacency list
+	 * Getter method for the incoming adjacency list, the roads that can be travelled to this town
+	 * @return the incoming adjacency list
 	 */
-	public void setList(LinkedListWithIterator<Road> adjacencyList)
+	public ArrayListWithIterator<Road> getIncomingList()
 	{
-		this.adjacencyList = adjacencyList;
+		return incoming;
 	}
 	
 	/** Marks this vertex as visited. */
@@ -168,7 +195,7 @@ public class Town implements Comparable<Town>
 	 */
 	public void addShortestPath(Town destinationVertex, StackInterface<String> path)
 	{
-		System.out.println("Adding shortest path between " + this.getName() + " and " + destinationVertex.getName() + " to shortest paths container.");
+		Log.ROUTING.trace(() -> "Adding shortest path between " + this.getName() + " and " + destinationVertex.getName() + " to shortest paths container.");
 		shortestPaths.add(destinationVertex.getName(), path);
 	}
 	
@@ -199,6 +226,15 @@ public class Town implements Comparable<Town>
 		}
 	}
 	
+	/**
+	 * Hash code producing method
+	 * @return the hash code for the town name
+	 */
+	public int hashCode()
+	{
+		return name.hashCode();
+	}
+	
 	/**
 	 * Method for comparing this town object and another town object
 	 * @param o other town object
@@ -232,7 +268,7 @@ public class Town implements Comparable<Town>
 			throw new NullPointerException();
 		}
 	
-		System.out.println("Adding Road " + road.getName() + " between " + road.getSource() + " and " + road.getDestination());
+		Log.GRAPH.trace(() -> "Adding Road " + road.getName() + " between " + road.getSource() + " and " + road.getDestination());
 		
 		Town startVertex = road.getSource();
 		Town endVertex = road.getDestination();
@@ -240,39 +276,110 @@ public class Town implements Comparable<Town>
 		//ensures no loops
 		if (!startVertex.equals(endVertex))
 		{
-			//adjacency list
-			Iterator<Town> neighbors = getNeighborIterator();
+			//roads touching this town, in either direction
+			Iterator<Road> roads = getRoadIterator();
 			
-			//checks adjacency list for this edge to already exist
+			//checks the roads for one between the two towns to already exist
 			boolean duplicateEdge = false;
-			while (!duplicateEdge && neighbors.hasNext())
+			while (!duplicateEdge && roads.hasNext())
 			{
-				Town currentTown = neighbors.next();
+				Town currentTown = roads.next().getOpposite(this);
 				if (endVertex.equals(currentTown))
 				{
 					duplicateEdge = true;
 				}
 			}
 			
-			//if we don't find a duplicate, add the Edge(endVertex, weight) to the list for this vertex
+			//if we don't find a duplicate, add the road to the lists of both towns
 			if (!duplicateEdge)
 			{
-				System.out.println("Adding " + road.getName() + " to " + this.getName());
-				
-				adjacencyList.add(road);
-				
-				System.out.println("Adding " + road.getName() + " to " + road.getDestination().getName());
-				road.getDestination().getList().add(road); //
+				Log.GRAPH.trace(() -> "Adding " + road.getName() + " to " + this.getName() + " and " + road.getDestination().getName());
+				attach(road);
 
-				System.out.println("Connected " + road.getSource() + " and " + road.getDestination());
+				Log.GRAPH.trace(() -> "Connected " + road.getSource() + " and " + road.getDestination());
 				return true;
 			}
 		}
 		
-		System.out.println("Did not connect " + road.getSource() + " and " + road.getDestination());
+		Log.GRAPH.trace(() -> "Did not connect " + road.getSource() + " and " + road.getDestination());
 		return false;
 	}
 	
+	/**
+	 * Adds a road to the adjacency lists of both of its towns without checking for loops or duplicates
+	 * @param road road starting at this town
+	 */
+	void attach(Road road)
+	{
+		Town destination = road.getDestination();
+		addTo(road, true);
+		destination.addTo(road, false);
+		if (!road.isOneWay())
+		{
+			destination.addTo(road, true);
+			addTo(road, false);
+		}
+	}
+	
+	/**
+	 * Removes a road from the adjacency lists of both of its towns, each in constant time
+	 * @param road road starting at this town
+	 */
+	void detach(Road road)
+	{
+		Town destination = road.getDestination();
+		removeFrom(road, true);
+		destination.removeFrom(road, false);
+		if (!road.isOneWay())
+		{
+			destination.removeFrom(road, true);
+			removeFrom(road, false);
+		}
+	}
+	
+	/**
+	 * Method appends a road to an adjacency list of this town, recording its position in the road
+	 * @param road road of this town
+	 * @param toOutgoing true for the outgoing list, false for the incoming list
+	 */
+	private void addTo(Road road, boolean toOutgoing)
+	{
+		ArrayListWithIterator<Road> list = toOutgoing ? outgoing : incoming;
+		road.setPosition(this, toOutgoing, list.getLength());
+		list.add(road);
+	}
+	
+	/**
+	 * Method removes a road from an adjacency list of this town at its recorded position, moving the last
+	 * road into its place. The list is searched instead if it was changed without updating the positions.
+	 * @param road road of this town
+	 * @param fromOutgoing true for the outgoing list, false for the incoming list
+	 */
+	private void removeFrom(Road road, boolean fromOutgoing)
+	{
+		ArrayListWithIterator<Road> list = fromOutgoing ? outgoing : incoming;
+		int position = road.getPosition(this, fromOutgoing);
+		if (position < 0 || position >= list.getLength() || list.getEntry(position) != road)
+		{
+			position = 0;
+			while (position < list.getLength() && list.getEntry(position) != road)
+			{
+				position++;
+			}
+			if (position == list.getLength())
+			{
+				return;
+			}
+		}
+		
+		list.swapRemove(position);
+		road.setPosition(this, fromOutgoing, -1);
+		if (position < list.getLength())
+		{
+			list.getEntry(position).setPosition(this, fromOutgoing, position);
+		}
+	}
+	
 	/*
 	/** Connects this vertex and a given vertex with an unweighted edge.
 	The two vertices cannot be the same, and must not already
@@ -286,16 +393,17 @@ public class Town implements Comparable<Town>
 	}
 	*/
 	
-	/** Creates an iterator of this vertex's roads by iterating over the adjacency list
+	/** Creates an iterator of the roads touching this vertex, in either direction, each once:
+	the outgoing roads, then the one-way roads arriving at this vertex.
 	@return An iterator of the edges of this vertex. */
 	public Iterator<Road> getRoadIterator()
 	{
-		System.out.println("Creating RoadIterator");
-		return adjacencyList.iterator();
+		Log.GRAPH.trace(() -> "Creating RoadIterator");
+		return new RoadIterator();
 	}
 	
 	/** Creates an iterator of this vertex's neighbors by following
-	all edges that begin at this vertex.
+	all edges that can be travelled away from this vertex.
 	@return An iterator of the neighboring vertices of this vertex. */
 	public Iterator<Town> getNeighborIterator()
 	{
@@ -311,6 +419,65 @@ public class Town implements Comparable<Town>
 		return new WeightIterator();
 	}
 	
+	/**
+	 * Inner class implementing an iterator over the roads touching this town.
+	 * Two-way roads are in both adjacency lists, so only the one-way roads of the incoming list are returned.
+	 */
+	private class RoadIterator implements Iterator<Road>
+	{
+		private Iterator<Road> roads;
+		private boolean readingIncoming; //the outgoing roads are done
+		private Road next; //next one-way incoming road, null if not found yet
+		
+		private RoadIterator()
+		{
+			roads = outgoing.iterator();
+			readingIncoming = false;
+		}
+		
+		public boolean hasNext()
+		{
+			if (!readingIncoming)
+			{
+				if (roads.hasNext())
+				{
+					return true;
+				}
+				readingIncoming = true;
+				roads = incoming.iterator();
+			}
+			while (next == null && roads.hasNext())
+			{
+				Road road = roads.next();
+				if (road.isOneWay())
+				{
+					next = road;
+				}
+			}
+			return next != null;
+		}
+		
+		public Road next()
+		{
+			if (!hasNext())
+			{
+				throw new NoSuchElementException();
+			}
+			else if (!readingIncoming)
+			{
+				return roads.next();
+			}
+			Road road = next;
+			next = null;
+			return road;
+		}
+		
+		public void remove()
+		{
+			throw new UnsupportedOperationException();
+		}
+	}
+	
 	/**
 	 * Inner class implementing a neighbor iterator
 	 * Used instead of calling adjacencyList.next().getEndVertex() while adjacencyList.next() would return an edge.
@@ -326,8 +493,8 @@ public class Town implements Comparable<Town>
 		
 		private NeighborIterator()
 		{
-			System.out.println("Creating NeighborIterator");
-			edges = adjacencyList.iterator(); //returns a linked list (Node<Edge>) iterator that we (further) modify and access to create a neigbor iterator as explained above
+			Log.ROUTING.trace(() -> "Creating NeighborIterator");
+			edges = outgoing.iterator(); //returns a list iterator that we (further) modify and access to create a neigbor iterator as explained above
 		}
 		
 		public boolean hasNext()
@@ -339,7 +506,7 @@ public class Town implements Comparable<Town>
 		{
 			if (edges.hasNext())
 			{
-				return edges.next().getDestination();
+				return edges.next().getOpposite(Town.this);
 			}
 			else
 			{
@@ -368,8 +535,8 @@ public class Town implements Comparable<Town>
 		
 		private WeightIterator()
 		{
-			System.out.println("Creating WeightIterator");
-			edges = adjacencyList.iterator(); //returns a linked list (Node<Edge>) iterator that we (further) modify and access to create a weight iterator as explained above
+			Log.ROUTING.trace(() -> "Creating WeightIterator");
+			edges = outgoing.iterator(); //returns a list iterator that we (further) modify and access to create a weight iterator as explained above
 		}
 		
 		public boolean hasNext()
@@ -7,18 +7,40 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
-import java.util.Scanner;
-import java.util.Set;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
 
+import Exceptions.RoadFileFormatException;
+import Interfaces.GraphListener;
+import Interfaces.GraphTransaction;
 import Interfaces.TownGraphManagerInterface;
+import Logging.Log;
 
 /**
  * Class implementing a Manager for a Graph containing Town's
  */
 public class TownGraphManager implements TownGraphManagerInterface
 {
+	//files at least this large are parsed by the parallel loader
+	private static final long PARALLEL_LOAD_THRESHOLD = 32L << 20;
+	
 	private Graph graph;
+	private MutationJournal journal; //null when mutations are not journaled
+	private NameIndex names; //town and road names in order
+	private ArrayList<Mutation> mutations; //mutations of the open batch, null outside of a batch
+	private GraphVersions versions; //null until versions are first published
+	private Executor queryExecutor; //runs the asynchronous queries
+	private RouteQueries queries; //null until the first asynchronous query
 	
 	/**
 	 * Default Constructor
@@ -26,6 +48,8 @@ public class TownGraphManager implements TownGraphManagerInterface
 	public TownGraphManager()
 	{
 		graph = new Graph();
+		names = new NameIndex(graph);
+		queryExecutor = ForkJoinPool.commonPool();
 	}
 	
 	/**
@@ -38,14 +62,35 @@ public class TownGraphManager implements TownGraphManagerInterface
 	 */
 	public boolean addRoad(String town1, String town2, int weight, String roadName) throws Exception
 	{
-		if ((addTown(town1) && addTown(town2)) || (containsTown(town1) && containsTown(town2)))
+		boolean hadTown1 = containsTown(town1);
+		boolean hadTown2 = containsTown(town2);
+		Road road = null;
+		try
 		{
-			return graph.addEdge(getTown(town1), getTown(town2), weight, roadName) != null;
+			//the towns are added directly, replaying the road adds them again
+			if ((graph.addVertex(new Town(town1)) && graph.addVertex(new Town(town2))) || (containsTown(town1) && containsTown(town2)))
+			{
+				road = graph.addEdge(getTown(town1), getTown(town2), weight, roadName);
+			}
 		}
-		else
+		finally
 		{
-			return false;
+			//towns may have been added even if the road was not, they are then journaled on their own
+			Road added = road;
+			String addedTown1 = !hadTown1 && containsTown(town1) ? town1 : null;
+			String addedTown2 = !hadTown2 && containsTown(town2) ? town2 : null;
+			Consumer<MutationJournal> write = null;
+			if (added != null)
+			{
+				write = log -> log.addRoad(town1, town2, weight, roadName);
+			}
+			else if (addedTown1 != null || addedTown2 != null)
+			{
+				write = log -> journalTowns(log, addedTown1, addedTown2);
+			}
+			record(() -> undoAddRoad(added, addedTown1, addedTown2), write);
 		}
+		return road != null;
 	}
 	
 	/**
@@ -99,7 +144,12 @@ public class TownGraphManager implements TownGraphManagerInterface
 	 */
 	public boolean addTown(String v)
 	{
-		return graph.addVertex(new Town(v));
+		boolean added = graph.addVertex(new Town(v));
+		if (added)
+		{
+			record(() -> graph.removeVertex(getTown(v)), log -> log.addTown(v));
+		}
+		return added;
 	}
 	
 	/**
@@ -143,8 +193,10 @@ public class TownGraphManager implements TownGraphManagerInterface
 	public boolean deleteRoadConnection(String town1, String town2, String road)
 	{
 		Road targetRoad = getRoadObject(town1, town2);
-		if (graph.removeEdge(getTown(town1), getTown(town2), targetRoad.getWeight(), road) != null)
+		Road removed = graph.removeEdge(getTown(town1), getTown(town2), targetRoad.getWeight(), road);
+		if (removed != null)
 		{
+			record(() -> graph.restoreEdge(removed), log -> log.deleteRoad(town1, town2, road));
 			return true;
 		}
 		else
@@ -160,35 +212,185 @@ public class TownGraphManager implements TownGraphManagerInterface
 	 */
 	public boolean deleteTown(String v)
 	{
-		return graph.removeVertex(getTown(v));
+		Town town = getTown(v);
+		//the roads are only kept for a rollback
+		ArrayList<Road> roads = mutations == null || town == null ? null : roadsOf(town);
+		boolean deleted = graph.removeVertex(town);
+		if (deleted)
+		{
+			record(() -> restoreTown(town, roads), log -> log.deleteTown(v));
+		}
+		return deleted;
 	}
-
+	
 	/**
-	 * Creates an arraylist of all road titles in sorted order by road name
-	 * @return an arraylist of all road titles in sorted order by road name
+	 * Makes a group of addTown, addRoad, deleteRoadConnection and deleteTown calls as one batch. The graph
+	 * changes as each call is made, but the listeners (such as the name index) receive every change at once,
+	 * under a single new version, when the batch commits, and the journal records the calls only then.
+	 * If the transaction throws, every change it made is undone, removed towns and roads come back with
+	 * their ids, nothing is delivered or journaled and the version is unchanged. A batch started inside
+	 * another joins it, rolling back only its own changes if it fails. Bulk loads and changes, which cannot be
+	 * rolled back, throw IllegalStateException during a batch.
+	 * @param transaction changes to make
+	 * @return the graph version once the batch is committed
+	 * @throws Exception thrown by the transaction, after its changes are rolled back
 	 */
-	public ArrayList<String> allRoads()
+	public long batch(GraphTransaction transaction) throws Exception
 	{
-		//gets all roads
-		Set<Road> roads = graph.edgeSet();
-		
-		System.out.println(roads.size());
-		
-		//road iterator
-		Iterator<Road> roadIterator = roads.iterator();
-		
-		//ArrayList for all roads
-		ArrayList<String> titles = new ArrayList<String>();
-		
-		while (roadIterator.hasNext())
+		boolean outermost = mutations == null;
+		if (outermost)
 		{
-			titles.add(roadIterator.next().getName());
+			mutations = new ArrayList<Mutation>();
 		}
+		int savepoint = mutations.size();
+		graph.beginBatch();
+		int eventMark = graph.getPendingEventCount();
 		
-		System.out.println("Sorting all Roads ArrayList");
-		titles.sort((o1, o2) -> o1.compareTo(o2));
+		try
+		{
+			transaction.apply(this);
+		}
+		catch (Throwable e)
+		{
+			Log.GRAPH.debug(() -> "Rolling back " + (mutations.size() - savepoint) + " changes of a failed batch: " + e);
+			for (int i = mutations.size() - 1; i >= savepoint; i--)
+			{
+				mutations.remove(i).undo.run();
+			}
+			graph.discardBatch(eventMark);
+			if (outermost)
+			{
+				mutations = null;
+			}
+			throw e;
+		}
 		
-		return titles;
+		if (outermost)
+		{
+			ArrayList<Mutation> committed = mutations;
+			mutations = null;
+			if (journal != null)
+			{
+				for (Mutation mutation : committed)
+				{
+					if (mutation.write != null)
+					{
+						mutation.write.accept(journal);
+					}
+				}
+			}
+		}
+		graph.endBatch();
+		return graph.getVersion();
+	}
+	
+	/**
+	 * Method records a mutation: inside a batch it is kept until the batch ends, otherwise it is journaled at once
+	 * @param undo reverts the mutation
+	 * @param write journals the mutation, null if there is nothing to journal
+	 */
+	private void record(Runnable undo, Consumer<MutationJournal> write)
+	{
+		if (mutations != null)
+		{
+			mutations.add(new Mutation(undo, write));
+		}
+		else if (write != null && journal != null)
+		{
+			write.accept(journal);
+		}
+	}
+	
+	/**
+	 * Method journals the towns an addRoad call added without adding its road
+	 * @param log journal
+	 * @param town1 name of town 1 if it was added, or null
+	 * @param town2 name of town 2 if it was added, or null
+	 */
+	private static void journalTowns(MutationJournal log, String town1, String town2)
+	{
+		if (town1 != null)
+		{
+			log.addTown(town1);
+		}
+		if (town2 != null)
+		{
+			log.addTown(town2);
+		}
+	}
+	
+	/**
+	 * Method refuses a change that is not recorded, and so could not be rolled back, while a batch is open
+	 * @param change what cannot be done, e.g. "Roads cannot be added in bulk"
+	 * @throws IllegalStateException thrown if a batch is open
+	 */
+	private void rejectInBatch(String change)
+	{
+		if (mutations != null)
+		{
+			throw new IllegalStateException(change + " during a batch.");
+		}
+	}
+	
+	/**
+	 * Method reverts an addRoad call
+	 * @param road road it added, or null
+	 * @param town1 name of town 1 if it added the town, or null
+	 * @param town2 name of town 2 if it added the town, or null
+	 */
+	private void undoAddRoad(Road road, String town1, String town2)
+	{
+		if (road != null)
+		{
+			graph.removeEdge(road.getSource(), road.getDestination(), road.getWeight(), road.getName());
+		}
+		if (town1 != null)
+		{
+			graph.removeVertex(getTown(town1));
+		}
+		if (town2 != null)
+		{
+			graph.removeVertex(getTown(town2));
+		}
+	}
+	
+	/**
+	 * Method reverts a deleteTown call, putting the town and its roads back
+	 * @param town town deleted
+	 * @param roads roads of the town when it was deleted
+	 */
+	private void restoreTown(Town town, ArrayList<Road> roads)
+	{
+		graph.restoreVertex(town);
+		for (Road road : roads)
+		{
+			graph.restoreEdge(road);
+		}
+	}
+	
+	/**
+	 * Method copies the roads touching a town
+	 * @param town town
+	 * @return the roads
+	 */
+	private static ArrayList<Road> roadsOf(Town town)
+	{
+		ArrayList<Road> roads = new ArrayList<Road>();
+		Iterator<Road> iterator = town.getRoadIterator();
+		while (iterator.hasNext())
+		{
+			roads.add(iterator.next());
+		}
+		return roads;
+	}
+
+	/**
+	 * Creates an arraylist of all road titles in sorted order by road name
+	 * @return an arraylist of all road titles in sorted order by road name
+	 */
+	public ArrayList<String> allRoads()
+	{
+		return names.allRoads();
 	}
 	
 	/**
@@ -197,26 +399,18 @@ public class TownGraphManager implements TownGraphManagerInterface
 	 */
 	public ArrayList<String> allTowns()
 	{
-		//gets all roads
-		Set<Town> towns = graph.vertexSet();
-		
-		System.out.println(towns.size());
-		
-		//road iterator
-		Iterator<Town> townIterator = towns.iterator();
-		
-		//ArrayList for all roads
-		ArrayList<String> names = new ArrayList<String>();
-		
-		while (townIterator.hasNext())
-		{
-			names.add(townIterator.next().getName());
-		}
-		
-		System.out.println("Sorting all Towns ArrayList");
-		names.sort((o1, o2) -> o1.compareTo(o2));
-		
-		return names;
+		return names.allTowns();
+	}
+	
+	/**
+	 * Creates an arraylist of the towns whose names start with a prefix, in alphabetical order
+	 * @param prefix beginning of the town names
+	 * @return an arraylist of the matching towns in alphabetical order
+	 * @throws NullPointerException if prefix is null
+	 */
+	public ArrayList<String> townsStartingWith(String prefix)
+	{
+		return names.townsStartingWith(prefix);
 	}
 	
 	/**
@@ -232,61 +426,492 @@ public class TownGraphManager implements TownGraphManagerInterface
 	}
 	
 	/**
-	 * Populates graph with data from file
+	 * Finds the shortest path from town 1 to town 2 in the background, over the latest published version of
+	 * the graph (see publishVersions). Identical requests made while one is in flight share its search.
+	 * The first asynchronous query must be made on the thread that changes the graph.
+	 * @param town1 name of town 1 (lastname, firstname)
+	 * @param town2 name of town 2 (lastname, firstname)
+	 * @return a future completed with the path as getPath returns it
+	 */
+	public CompletableFuture<ArrayList<String>> getPathAsync(String town1, String town2)
+	{
+		return getQueries().getPath(town1, town2);
+	}
+	
+	/**
+	 * Finds the length of the shortest path from town 1 to town 2 in the background, as getPathAsync does
+	 * @param town1 name of town 1 (lastname, firstname)
+	 * @param town2 name of town 2 (lastname, firstname)
+	 * @return a future completed with the distance in miles, or -1 if a town is unknown or the towns are disjoint
+	 */
+	public CompletableFuture<Integer> getDistanceAsync(String town1, String town2)
+	{
+		return getQueries().getDistance(town1, town2);
+	}
+	
+	/**
+	 * Sets the executor running the asynchronous queries, the common fork-join pool by default.
+	 * Queries already in flight finish on the previous executor.
+	 * @param executor query executor
+	 */
+	public void setQueryExecutor(Executor executor)
+	{
+		if (executor == null)
+		{
+			throw new NullPointerException();
+		}
+		queryExecutor = executor;
+		queries = null;
+	}
+	
+	/**
+	 * Method returns the asynchronous query service, starting it on the first query
+	 * @return the query service
+	 */
+	private RouteQueries getQueries()
+	{
+		if (queries == null)
+		{
+			queries = new RouteQueries(publishVersions(), queryExecutor);
+		}
+		return queries;
+	}
+	
+	/**
+	 * Returns the shortest paths between many pairs of towns, finding them in parallel on a fork-join pool.
+	 * Each worker thread routes with its own search, and the paths are not stored in the towns, so the
+	 * graph must not change until this returns.
+	 * @param towns1 names of the starting towns
+	 * @param towns2 names of the ending towns, one for each starting town
+	 * @param parallelism number of worker threads
+	 * @return the path between each pair as getPath returns it, in the order of the pairs
+	 */
+	public List<ArrayList<String>> getPaths(List<String> towns1, List<String> towns2, int parallelism)
+	{
+		if (towns1.size() != towns2.size())
+		{
+			throw new IllegalArgumentException("Every starting town needs an ending town.");
+		}
+		
+		//filled in place by index, each pair by one worker
+		List<ArrayList<String>> paths = new ArrayList<ArrayList<String>>(Collections.nCopies(towns1.size(), (ArrayList<String>) null));
+		ThreadLocal<ShortestPathSearch> searches = ThreadLocal.withInitial(graph::newSearch);
+		ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
+		try
+		{
+			pool.invoke(new RouteTask(graph, searches, towns1, towns2, paths, 0, paths.size()));
+		}
+		finally
+		{
+			pool.shutdown();
+		}
+		
+		Log.ROUTING.debug(() -> "Found " + paths.size() + " paths on " + parallelism + " threads");
+		return paths;
+	}
+	
+	/**
+	 * Adds a batch of roads in bulk, adding the towns they name that are not yet in the graph.
+	 * Duplicate and looping roads are skipped instead of failing the batch.
+	 * @param roads batch of road records
+	 * @return the number of roads added
+	 * @throws IllegalStateException thrown if called during a batch, which could not roll the roads back
+	 */
+	public int addRoads(EdgeBuffer roads)
+	{
+		rejectInBatch("Roads cannot be added in bulk");
+		return graph.addEdges(roads);
+	}
+	
+	/**
+	 * Populates graph with data from file. The whole file is parsed first, then its roads are merged into the
+	 * graph in one bulk add; a large file is parsed in parallel chunks.
 	 * @param file data file
+	 * @throws RoadFileFormatException thrown if a line of the file is malformed
+	 * @throws IllegalStateException thrown if called during a batch
 	 * @throws Exception thrown if Road is not added properly
 	 */
 	public void populateTownGraph(File file) throws FileNotFoundException, IOException, Exception
 	{
-		Scanner inputFile = new Scanner(file);
+		rejectInBatch("A road file cannot be loaded");
+		if (file.length() >= PARALLEL_LOAD_THRESHOLD)
+		{
+			populateTownGraph(file, Runtime.getRuntime().availableProcessors());
+			return;
+		}
 		
-		while (inputFile.hasNextLine())
+		Log.LOADING.trace(() -> "Reading file " + file.getName());
+		
+		EdgeBuffer roads = new EdgeBuffer();
+		new RoadFileParser().parse(file, roads);
+		int added = graph.addEdges(roads);
+		
+		Log.LOADING.debug(() -> "Added " + added + " of " + roads.size() + " Roads from file " + file.getName());
+	}
+	
+	/**
+	 * Populates graph with data from a large file, memory mapping it and parsing chunks of it in parallel.
+	 * The roads are added to the graph in file order, in one bulk add, once every chunk is parsed.
+	 * @param file data file
+	 * @param parallelism number of parsing threads
+	 * @throws RoadFileFormatException thrown if a line of the file is malformed
+	 * @throws IllegalStateException thrown if called during a batch
+	 * @throws Exception thrown if Road is not added properly
+	 */
+	public void populateTownGraph(File file, int parallelism) throws IOException, Exception
+	{
+		rejectInBatch("A road file cannot be loaded");
+		List<EdgeBuffer> chunks = new ParallelRoadFileLoader(parallelism).load(file);
+		
+		int total = 0;
+		for (EdgeBuffer chunk : chunks)
 		{
-			System.out.println("Found input from file " + file.getName());
-			
-			inputFile.useDelimiter(",");
-			String roadName = inputFile.next();
-			System.out.println("Road Name: " + roadName);
-			inputFile.useDelimiter("");
-			inputFile.next(",");
-			inputFile.useDelimiter(";");
-			int distance = inputFile.nextInt();
-			System.out.println("Distance: " + distance);
-			inputFile.useDelimiter("");
-			inputFile.next(";");
-			inputFile.useDelimiter(";");
-			Town sourceTown = new Town(inputFile.next());
-			System.out.println("Source Town: " + sourceTown.getName());
-			inputFile.reset();
-			inputFile.useDelimiter("");
-			inputFile.next(";");
-			inputFile.reset();
-			Town destinationTown = new Town(inputFile.nextLine());
-			System.out.println("Destination Town: " + destinationTown.getName());
-			
-			//adds vertices
-			if (!graph.containsVertex(sourceTown))
+			total += chunk.size();
+		}
+		
+		//one bulk add, as each call of addEdges walks every town id once
+		EdgeBuffer roads = new EdgeBuffer(total);
+		for (EdgeBuffer chunk : chunks)
+		{
+			roads.addAll(chunk);
+		}
+		int added = graph.addEdges(roads);
+		
+		Log.LOADING.debug(() -> "Added " + added + " of " + roads.size() + " Roads from file " + file.getName());
+	}
+	
+	/**
+	 * Populates graph with data from several files, parsing them at once on a pool of threads, one
+	 * producer per file. Only the parsing is parallel: once every file is parsed, the roads are added to the
+	 * graph by one bulk add on the calling thread, in the order of the files.
+	 * @param files data files
+	 * @param parallelism number of parsing threads
+	 * @throws RoadFileFormatException thrown if a line of a file is malformed
+	 * @throws IllegalStateException thrown if called during a batch
+	 * @throws Exception thrown if a file cannot be read or Road is not added properly
+	 */
+	public void populateTownGraph(List<File> files, int parallelism) throws IOException, Exception
+	{
+		rejectInBatch("Road files cannot be loaded");
+		GraphBuilder builder = new GraphBuilder();
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, files.size())), runnable -> {
+			Thread thread = new Thread(runnable, "road-file-producer");
+			thread.setDaemon(true);
+			return thread;
+		});
+		
+		try
+		{
+			//producers are made here, in file order, so the merge order does not depend on the threads
+			List<Future<Integer>> futures = new ArrayList<Future<Integer>>(files.size());
+			for (File file : files)
 			{
-				graph.addVertex(sourceTown);
+				GraphBuilder.Producer producer = builder.newProducer();
+				futures.add(executor.submit(() -> new RoadFileParser().parse(file, producer)));
 			}
-			else
+			
+			for (int i = 0; i < futures.size(); i++)
 			{
-				sourceTown = graph.getTown(sourceTown);
+				try
+				{
+					futures.get(i).get();
+				}
+				catch (ExecutionException e)
+				{
+					File failed = files.get(i);
+					Log.LOADING.error(() -> "Failed to read file " + failed.getName() + ": " + e.getCause());
+					throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+				}
 			}
-			if (!graph.containsVertex(destinationTown))
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+		
+		int added = addRoads(builder);
+		Log.LOADING.debug(() -> "Added " + added + " Roads from " + files.size() + " files");
+	}
+	
+	/**
+	 * Adds the roads of every producer of a builder in bulk, adding the towns they name that are not yet in
+	 * the graph. Every producer must be done.
+	 * @param builder builder filled by producer threads
+	 * @return the number of roads added
+	 * @throws IllegalStateException thrown if called during a batch, which could not roll the roads back
+	 */
+	public int addRoads(GraphBuilder builder)
+	{
+		rejectInBatch("Roads cannot be added in bulk");
+		return builder.addTo(graph);
+	}
+	
+	/**
+	 * Watches a road file the graph was populated from, applying the roads added, removed and changed by
+	 * each edit of the file. Only the difference is applied, towns no longer named by any road are kept,
+	 * and the applied mutations are not journaled since the edited file already holds them.
+	 * @param file road file, already populated
+	 * @param applier executor applying each difference, e.g. the thread that owns the graph
+	 * @return the started watcher, closing it stops the watching
+	 * @throws RoadFileFormatException thrown if a line of the file is malformed
+	 * @throws IOException thrown if the file cannot be read or watched
+	 */
+	public RoadFileWatcher watchRoadFile(File file, Executor applier) throws IOException, Exception
+	{
+		EdgeBuffer loaded = new EdgeBuffer();
+		new RoadFileParser().parse(file, loaded);
+		
+		RoadFileWatcher watcher = new RoadFileWatcher(file, loaded, diff -> applier.execute(() -> applyRoadFileDiff(diff)));
+		watcher.start();
+		return watcher;
+	}
+	
+	/**
+	 * Applies the difference between two versions of a road file: removed roads are deleted, changed
+	 * roads are deleted and added again, and added roads are added along with any new towns they name.
+	 * Roads already deleted or added by other mutations, or since renamed or given another distance, are skipped.
+	 * @param diff difference to apply
+	 * @return the number of roads added
+	 * @throws IllegalStateException thrown if called during a batch, which could not roll the changes back
+	 */
+	public int applyRoadFileDiff(RoadFileDiff diff)
+	{
+		rejectInBatch("Road file changes cannot be applied");
+		EdgeBuffer removed = diff.getRemovedRoads();
+		EdgeBuffer changed = diff.getChangedRoads();
+		EdgeBuffer replaced = diff.getReplacedRoads();
+		EdgeBuffer added = diff.getAddedRoads();
+		
+		graph.beginBatch();
+		for (int i = 0; i < removed.size(); i++)
+		{
+			removeFileRoad(removed, i);
+		}
+		
+		EdgeBuffer additions = new EdgeBuffer(changed.size() + added.size());
+		for (int i = 0; i < changed.size(); i++)
+		{
+			removeFileRoad(replaced, i);
+			additions.road(changed.getRoadName(i), changed.getMiles(i), changed.getSource(i), changed.getDestination(i));
+		}
+		for (int i = 0; i < added.size(); i++)
+		{
+			additions.road(added.getRoadName(i), added.getMiles(i), added.getSource(i), added.getDestination(i));
+		}
+		
+		int addedRoads = graph.addEdges(additions);
+		graph.endBatch();
+		Log.LOADING.debug(() -> "Applied road file changes: " + diff);
+		return addedRoads;
+	}
+	
+	/**
+	 * Method removes the road of a file record if it is in the graph. A road joining the same towns under
+	 * another name or distance, e.g. one added by hand, is left in place.
+	 * @param roads road records
+	 * @param index record index
+	 */
+	private void removeFileRoad(EdgeBuffer roads, int index)
+	{
+		Town sourceVertex = getTown(roads.getSource(index));
+		Town destinationVertex = getTown(roads.getDestination(index));
+		
+		if (sourceVertex != null && destinationVertex != null)
+		{
+			Road road = graph.getEdge(sourceVertex, destinationVertex);
+			if (road != null && road.getWeight() == roads.getMiles(index) && road.getName().equals(roads.getRoadName(index)))
 			{
-				graph.addVertex(destinationTown);
+				graph.removeEdge(sourceVertex, destinationVertex, road.getWeight(), road.getName());
 			}
-			else
+		}
+	}
+	
+	/**
+	 * Saves the graph as a binary snapshot
+	 * @param file snapshot file
+	 * @throws IOException thrown if the file cannot be written
+	 */
+	public void saveSnapshot(File file) throws IOException
+	{
+		GraphSnapshot.write(graph, file);
+	}
+	
+	/**
+	 * Replaces the graph with one restored from a binary snapshot
+	 * @param file snapshot file
+	 * @throws IOException thrown if the file cannot be read or is not a valid snapshot
+	 */
+	public void loadSnapshot(File file) throws IOException
+	{
+		rejectInBatch("A snapshot cannot be loaded");
+		Graph restored = GraphSnapshot.open(file).toGraph();
+		restored.replace(graph);
+		graph = restored;
+	}
+	
+	/**
+	 * Creates a compressed, read-only copy of the adjacency of the graph, for routing over large networks
+	 * @return the compressed adjacency, town ids are those of the graph
+	 */
+	public CompressedAdjacency compressAdjacency()
+	{
+		return CompressedAdjacency.of(graph);
+	}
+	
+	/**
+	 * Copies the adjacency of the graph into direct memory, outside of the Java heap, for routing over large networks
+	 * @return the off-heap adjacency, town ids are the indexes of a snapshot of the graph
+	 * @throws IOException thrown if the graph is too large
+	 */
+	public OffHeapAdjacency offHeapAdjacency() throws IOException
+	{
+		return OffHeapAdjacency.of(graph);
+	}
+	
+	/**
+	 * Registers a listener to receive the changes made to the graph, it stays registered when a snapshot
+	 * replaces the graph
+	 * @param listener listener to add
+	 */
+	public void addGraphListener(GraphListener listener)
+	{
+		graph.addGraphListener(listener);
+	}
+	
+	/**
+	 * Unregisters a listener
+	 * @param listener listener to remove
+	 * @return true if the listener was registered
+	 */
+	public boolean removeGraphListener(GraphListener listener)
+	{
+		return graph.removeGraphListener(listener);
+	}
+	
+	/**
+	 * Getter method for the graph version, which increases every time a batch of changes is made
+	 * @return the version
+	 */
+	public long getVersion()
+	{
+		return graph.getVersion();
+	}
+	
+	/**
+	 * Starts publishing an immutable version of the graph after every batch of changes, for threads
+	 * that route or look up towns while this manager changes the graph. The first call must be made on the
+	 * thread that changes the graph; the versions are kept when a snapshot replaces the graph.
+	 * @return the published versions, take the latest with current()
+	 */
+	public GraphVersions publishVersions()
+	{
+		if (versions == null)
+		{
+			versions = new GraphVersions(graph);
+		}
+		return versions;
+	}
+	
+	/**
+	 * Replays a mutation journal onto the graph and then journals every later addTown, addRoad,
+	 * deleteRoadConnection and deleteTown to it. The journal must be replayed onto the same snapshot
+	 * or road file its mutations were made against. Any journal already open is closed first.
+	 * @param file journal file, created if it does not exist
+	 * @param syncIntervalMillis longest time a mutation waits to be forced to disk, 0 to force every mutation
+	 * @return the number of mutations replayed
+	 * @throws IOException thrown if the journal cannot be read or opened
+	 */
+	public int openJournal(File file, long syncIntervalMillis) throws IOException
+	{
+		closeJournal();
+		int replayed = MutationJournal.replay(file, this);
+		journal = MutationJournal.open(file, syncIntervalMillis);
+		return replayed;
+	}
+	
+	/**
+	 * Forces every journaled mutation to disk
+	 * @throws IOException thrown if the journal cannot be written
+	 */
+	public void syncJournal() throws IOException
+	{
+		if (journal != null)
+		{
+			journal.sync();
+		}
+	}
+	
+	/**
+	 * Syncs and closes the journal, later mutations are not journaled
+	 * @throws IOException thrown if the journal cannot be written
+	 */
+	public void closeJournal() throws IOException
+	{
+		if (journal != null)
+		{
+			MutationJournal closing = journal;
+			journal = null;
+			closing.close();
+		}
+	}
+	
+	/**
+	 * Inner class for the task finding the paths of a range of pairs, splitting large ranges in halves
+	 */
+	private static class RouteTask extends RecursiveAction
+	{
+		private static final long serialVersionUID = 1L;
+		//ranges at most this long are routed by one task
+		private static final int LEAF_SIZE = 16;
+		
+		private final Graph graph;
+		private final ThreadLocal<ShortestPathSearch> searches;
+		private final List<String> towns1;
+		private final List<String> towns2;
+		private final List<ArrayList<String>> paths;
+		private final int from;
+		private final int to;
+		
+		private RouteTask(Graph graph, ThreadLocal<ShortestPathSearch> searches, List<String> towns1, List<String> towns2, List<ArrayList<String>> paths, int from, int to)
+		{
+			this.graph = graph;
+			this.searches = searches;
+			this.towns1 = towns1;
+			this.towns2 = towns2;
+			this.paths = paths;
+			this.from = from;
+			this.to = to;
+		}
+		
+		protected void compute()
+		{
+			if (to - from > LEAF_SIZE)
 			{
-				destinationTown = graph.getTown(destinationTown);
+				int middle = (from + to) >>> 1;
+				invokeAll(new RouteTask(graph, searches, towns1, towns2, paths, from, middle), new RouteTask(graph, searches, towns1, towns2, paths, middle, to));
+				return;
 			}
 			
-			//adds edge
-			graph.addEdge(sourceTown, destinationTown, distance, roadName);
+			ShortestPathSearch search = searches.get();
+			for (int i = from; i < to; i++)
+			{
+				paths.set(i, graph.findPath(search, towns1.get(i), towns2.get(i)));
+			}
 		}
+	}
+	
+	/**
+	 * Inner class for a mutation made during a batch
+	 */
+	private static class Mutation
+	{
+		private final Runnable undo;
+		private final Consumer<MutationJournal> write;
 		
-		System.out.println("Closing file " + file.getName());
-		inputFile.close();
+		private Mutation(Runnable undo, Consumer<MutationJournal> write)
+		{
+			this.undo = undo;
+			this.write = write;
+		}
 	}
 }
@@ -0,0 +1,70 @@
+package Interfaces;
+
+/**
+ * An interface for read-only adjacency of a graph whose towns are numbered 0 to getTownCount() - 1.
+ * The roads leaving a town are read with a cursor, so walking them allocates nothing.
+ */
+public interface AdjacencyInterface
+{
+	/**
+	 * Returns the number of town ids, some ids may have no town
+	 * @return the bound of the town ids
+	 */
+	public int getTownCount();
+	
+	/**
+	 * Returns the name of a town
+	 * @param town town id
+	 * @return the town name, or null if no town has the id
+	 */
+	public String getTownName(int town);
+	
+	/**
+	 * Returns the number of roads leaving a town
+	 * @param town town id
+	 * @return the degree of the town
+	 */
+	public int getDegree(int town);
+	
+	/**
+	 * Creates a cursor over the roads leaving a town. A cursor is reused by resetting it to another town.
+	 * @return a new cursor, positioned before no roads until reset
+	 */
+	public Cursor getCursor();
+	
+	/**
+	 * A cursor over the roads leaving one town
+	 */
+	public interface Cursor
+	{
+		/**
+		 * Positions this cursor before the first road leaving a town
+		 * @param town town id
+		 */
+		public void reset(int town);
+		
+		/**
+		 * Moves to the next road
+		 * @return true if there is a next road, false once the roads are exhausted
+		 */
+		public boolean next();
+		
+		/**
+		 * Returns the id of the town the current road leads to
+		 * @return the destination town id
+		 */
+		public int getTarget();
+		
+		/**
+		 * Returns the distance of the current road
+		 * @return the road weight
+		 */
+		public int getWeight();
+		
+		/**
+		 * Returns the name of the current road
+		 * @return the road name
+		 */
+		public String getRoadName();
+	}
+}
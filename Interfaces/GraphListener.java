@@ -0,0 +1,19 @@
+package Interfaces;
+
+import java.util.List;
+
+import Graph_Classes.GraphEvent;
+
+/**
+ * An interface for receiving the changes made to a graph, e.g. to keep an index or a cache up to date.
+ * The changes are delivered on the thread that made them, once the graph is consistent again.
+ */
+public interface GraphListener
+{
+	/**
+	 * Receives a batch of changes
+	 * @param events the changes, in the order they were made
+	 * @param version the graph version after the changes
+	 */
+	public void graphChanged(List<GraphEvent> events, long version);
+}
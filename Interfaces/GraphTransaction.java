@@ -0,0 +1,15 @@
+package Interfaces;
+
+/**
+ * An interface for a group of changes made to a town graph as one batch, committed together or not at all.
+ * See TownGraphManager.batch.
+ */
+public interface GraphTransaction
+{
+	/**
+	 * Makes the changes of the batch through the manager
+	 * @param manager manager whose graph is changed
+	 * @throws Exception thrown to roll back every change of the batch
+	 */
+	public void apply(TownGraphManagerInterface manager) throws Exception;
+}
@@ -5,8 +5,10 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.ArrayList;
 
+import Graph_Classes.RoadFileWatcher;
 import Graph_Classes.Town;
 import Graph_Classes.TownGraphManager;
+import Logging.Log;
 import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
@@ -33,6 +35,8 @@ public class FXMainPane extends VBox {
 	Insets inset, inset2, inset3;
 
 	TownGraphManager graph;
+	RoadFileWatcher fileWatcher;
+	private static final long JOURNAL_SYNC_MILLIS = 100;
 	private Alert alert = new Alert(AlertType.INFORMATION);
 	
 	
@@ -327,6 +331,14 @@ public class FXMainPane extends VBox {
 			}
 		});
 		exitButton.setOnAction(event -> {
+			try {
+				if (fileWatcher != null) {
+					fileWatcher.close();
+				}
+				graph.closeJournal();
+			} catch (IOException e) {
+				Log.LOADING.error(() -> "Closing the journal failed: " + e);
+			}
        	 	Platform.exit();
        	 	System.exit(0);
 		});
@@ -357,6 +369,16 @@ public class FXMainPane extends VBox {
 			selectedFile = chooser.showOpenDialog(null);
 			if(selectedFile != null) {
 				graph.populateTownGraph(selectedFile);
+				//replays the changes made on top of this file before, and records the new ones
+				graph.openJournal(new File(selectedFile.getPath() + ".journal"), JOURNAL_SYNC_MILLIS);
+				//applies later edits of this file on the JavaFX thread
+				if (fileWatcher != null) {
+					fileWatcher.close();
+				}
+				fileWatcher = graph.watchRoadFile(selectedFile, task -> Platform.runLater(() -> {
+					task.run();
+					updateComboBoxes();
+				}));
 				}
 			updateComboBoxes();
 		} catch (FileNotFoundException e) {
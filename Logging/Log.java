@@ -0,0 +1,185 @@
+package Logging;
+
+import java.io.PrintStream;
+import java.util.function.Supplier;
+
+/**
+ * Class implementing a leveled logging channel.
+ * Messages are passed as suppliers, so a message below the channel's level is never built;
+ * a disabled call costs one level comparison.
+ * The level of a channel can be set with the system property citynav.log.(channel name),
+ * or for every channel at once with citynav.log, e.g. -Dcitynav.log.routing=TRACE
+ */
+public class Log
+{
+	/**
+	 * Levels in increasing order of severity, OFF disables a channel
+	 */
+	public enum Level {TRACE, DEBUG, INFO, WARN, ERROR, OFF};
+	
+	//declared before the channels, which read it while initializing
+	private static final Level DEFAULT_LEVEL = Level.INFO;
+	private static volatile PrintStream output = System.out;
+	
+	//channels
+	public static final Log GRAPH = new Log("graph");
+	public static final Log ROUTING = new Log("routing");
+	public static final Log LOADING = new Log("loading");
+	public static final Log STRUCTURES = new Log("structures");
+	
+	private final String name;
+	private volatile Level level;
+	
+	/**
+	 * Parameterized constructor, reads the channel's level from the system properties
+	 * @param name channel name
+	 */
+	public Log(String name)
+	{
+		this.name = name;
+		this.level = parseLevel(System.getProperty("citynav.log." + name, System.getProperty("citynav.log")));
+	}
+	
+	/**
+	 * Getter method for the channel name
+	 * @return the channel name
+	 */
+	public String getName()
+	{
+		return name;
+	}
+	
+	/**
+	 * Getter method for the channel level
+	 * @return the lowest level that is printed
+	 */
+	public Level getLevel()
+	{
+		return level;
+	}
+	
+	/**
+	 * Setter method for the channel level
+	 * @param level the lowest level that is printed
+	 */
+	public void setLevel(Level level)
+	{
+		if (level == null)
+		{
+			throw new NullPointerException();
+		}
+		this.level = level;
+	}
+	
+	/**
+	 * Setter method for the stream every channel prints to
+	 * @param stream output stream
+	 */
+	public static void setOutput(PrintStream stream)
+	{
+		if (stream == null)
+		{
+			throw new NullPointerException();
+		}
+		output = stream;
+	}
+	
+	/**
+	 * Determines if messages of a level are printed by this channel
+	 * @param messageLevel level of the message
+	 * @return true if enabled
+	 */
+	public boolean isEnabled(Level messageLevel)
+	{
+		return messageLevel != Level.OFF && messageLevel.ordinal() >= level.ordinal();
+	}
+	
+	/**
+	 * Determines if trace messages are printed, used to guard code in inner loops
+	 * @return true if trace is enabled
+	 */
+	public boolean isTraceEnabled()
+	{
+		return level == Level.TRACE;
+	}
+	
+	/**
+	 * Prints a message if its level is enabled
+	 * @param messageLevel level of the message
+	 * @param message supplier of the message, only called if the level is enabled
+	 */
+	public void log(Level messageLevel, Supplier<String> message)
+	{
+		if (isEnabled(messageLevel))
+		{
+			output.println("[" + messageLevel + "] " + name + ": " + message.get());
+		}
+	}
+	
+	/**
+	 * Prints a trace message
+	 * @param message supplier of the message
+	 */
+	public void trace(Supplier<String> message)
+	{
+		log(Level.TRACE, message);
+	}
+	
+	/**
+	 * Prints a debug message
+	 * @param message supplier of the message
+	 */
+	public void debug(Supplier<String> message)
+	{
+		log(Level.DEBUG, message);
+	}
+	
+	/**
+	 * Prints an info message
+	 * @param message supplier of the message
+	 */
+	public void info(Supplier<String> message)
+	{
+		log(Level.INFO, message);
+	}
+	
+	/**
+	 * Prints a warning message
+	 * @param message supplier of the message
+	 */
+	public void warn(Supplier<String> message)
+	{
+		log(Level.WARN, message);
+	}
+	
+	/**
+	 * Prints an error message
+	 * @param message supplier of the message
+	 */
+	public void error(Supplier<String> message)
+	{
+		log(Level.ERROR, message);
+	}
+	
+	/**
+	 * Method parses a level name, falling back to the default level
+	 * @param value level name, may be null
+	 * @return the parsed level
+	 */
+	private static Level parseLevel(String value)
+	{
+		if (value == null)
+		{
+			return DEFAULT_LEVEL;
+		}
+		
+		try
+		{
+			return Level.valueOf(value.trim().toUpperCase());
+		}
+		catch (IllegalArgumentException e)
+		{
+			return DEFAULT_LEVEL;
+		}
+	}
+}